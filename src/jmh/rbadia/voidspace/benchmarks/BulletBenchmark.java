@@ -0,0 +1,64 @@
+package rbadia.voidspace.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rbadia.voidspace.main.GameLogic;
+import rbadia.voidspace.model.Bullet;
+import rbadia.voidspace.model.EntityStore;
+import rbadia.voidspace.model.World;
+import rbadia.voidspace.sounds.SoundManager;
+
+/**
+ * Measures moving bullets with {@link GameLogic#moveBullet(EntityStore, int)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class BulletBenchmark {
+	@Param({"10", "100", "1000", "10000"})
+	public int bulletCount;
+
+	private GameLogic gameLogic;
+	private EntityStore bullets;
+
+	@Setup
+	public void setUp() {
+		gameLogic = new GameLogic(Fixtures.WIDTH, Fixtures.HEIGHT, new SoundManager(false), Fixtures.SEED);
+		gameLogic.newGame();
+		bullets = new EntityStore(World.PROJECTILE, bulletCount);
+		for(int i=0; i<bulletCount; i++){
+			Bullet.fire(bullets, gameLogic.getShip());
+			bullets.setLocation(i, i % Fixtures.WIDTH, i % Fixtures.HEIGHT);
+		}
+	}
+
+	/**
+	 * Moves every bullet one step, putting the ones that leave the screen back at the bottom.
+	 */
+	@Benchmark
+	public int moveBullets() {
+		int removed = 0;
+		for(int i=0; i<bullets.size(); i++){
+			if(gameLogic.moveBullet(bullets, i)){
+				bullets.setLocation(i, bullets.x[i], Fixtures.HEIGHT);
+				removed++;
+			}
+		}
+		return removed;
+	}
+}
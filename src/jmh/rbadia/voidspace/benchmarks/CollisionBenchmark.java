@@ -0,0 +1,78 @@
+package rbadia.voidspace.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rbadia.voidspace.main.GameLogic;
+import rbadia.voidspace.model.World;
+import rbadia.voidspace.sounds.SoundManager;
+
+/**
+ * Measures the collision checks at growing entity counts. Nothing ever collides, so every check
+ * does its full scan and the game state stays the same between invocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CollisionBenchmark {
+	@Param({"10", "100", "1000", "10000"})
+	public int entityCount;
+
+	private GameLogic gameLogic;
+
+	@Setup
+	public void setUp() {
+		Random rand = new Random(Fixtures.SEED);
+		World world = Fixtures.world(entityCount);
+		gameLogic = new GameLogic(world, new SoundManager(false), Fixtures.SEED);
+		gameLogic.setWave(0, 0, 0);
+		gameLogic.newGame();
+
+		// bullets in the top half, asteroids between them and the ship
+		Fixtures.addBullets(world.getBullets(), gameLogic.getShip(), entityCount, rand);
+		Fixtures.addAsteroids(world, gameLogic.getShip(), entityCount, rand);
+		gameLogic.updateCollisionGrid();
+	}
+
+	/**
+	 * Rebuilds the collision grid from the asteroids.
+	 */
+	@Benchmark
+	public void updateCollisionGrid() {
+		gameLogic.updateCollisionGrid();
+	}
+
+	/**
+	 * Rebuilds the collision grid and checks every bullet against the asteroids near it.
+	 * @return the number of exact bounds tests run, which should grow about linearly
+	 */
+	@Benchmark
+	public long bulletCollisions() {
+		gameLogic.updateCollisionGrid();
+		gameLogic.checkBulletCollisions();
+		return gameLogic.getCollisionGrid().getPairsTested();
+	}
+
+	/**
+	 * Checks the ship against the asteroids near it.
+	 */
+	@Benchmark
+	public void shipCollisions() {
+		gameLogic.checkShipCollisions();
+	}
+}
@@ -0,0 +1,188 @@
+package rbadia.voidspace.benchmarks;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rbadia.voidspace.graphics.GraphicsManager;
+import rbadia.voidspace.graphics.SpriteRasterizer;
+import rbadia.voidspace.graphics.Starfield;
+import rbadia.voidspace.main.GameLogic;
+import rbadia.voidspace.main.ParallelRanges;
+import rbadia.voidspace.main.RenderSnapshot;
+import rbadia.voidspace.main.TripleBuffer;
+import rbadia.voidspace.model.EntityStore;
+import rbadia.voidspace.model.World;
+import rbadia.voidspace.sounds.SoundManager;
+
+/**
+ * Measures drawing a published frame of the world into back buffers of different image types, the
+ * way the game screen does (a {@link GraphicsManager} sprite at a time, or with the software
+ * rasterizer), and handing a frame of the world to the render thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class DrawBenchmark {
+	@Param({"TYPE_INT_RGB", "TYPE_INT_ARGB", "TYPE_INT_ARGB_PRE", "TYPE_3BYTE_BGR"})
+	public String imageType;
+
+	@Param({"100", "2000"})
+	public int spriteCount;
+
+	private GraphicsManager graphicsMan;
+	private GameLogic gameLogic;
+	private BufferedImage backBuffer;
+	private Graphics2D g2d;
+	private World world;
+	private Starfield starfield;
+	// where the enemies, bullets, and the ship and explosions are in the frame, which holds
+	// them in that order
+	private int bulletsStart;
+	private int shipStart;
+	private long frame;
+	private SpriteRasterizer rasterizer;
+	private final ParallelRanges bands = new ParallelRanges(ForkJoinPool.commonPool(), 2);
+
+	@Setup
+	public void setUp() throws Exception {
+		Random rand = new Random(Fixtures.SEED);
+		graphicsMan = new GraphicsManager();
+		world = Fixtures.world(spriteCount + 2);
+		gameLogic = new GameLogic(world, new SoundManager(false), Fixtures.SEED);
+		gameLogic.setWave(0, 0, 0);
+		gameLogic.newGame();
+
+		int type = BufferedImage.class.getField(imageType).getInt(null);
+		backBuffer = new BufferedImage(Fixtures.WIDTH, Fixtures.HEIGHT, type);
+		g2d = backBuffer.createGraphics();
+		starfield = new Starfield(Fixtures.WIDTH, Fixtures.HEIGHT, 1, Fixtures.SEED);
+
+		Fixtures.addBullets(world.getBullets(), gameLogic.getShip(), spriteCount, rand);
+		Fixtures.addAsteroids(world, gameLogic.getShip(), spriteCount, rand);
+		world.spawnEnemyShip(rand, -1, 2);
+		world.spawnBossShip(rand);
+		world.spawnExplosion(EntityStore.ASTEROID_EXPLOSION, Fixtures.WIDTH / 2, Fixtures.HEIGHT / 2, 1);
+		world.spawnExplosion(EntityStore.SHIP_EXPLOSION, Fixtures.WIDTH / 2, Fixtures.HEIGHT / 2, 1);
+
+		// the frame the draw benchmarks draw
+		gameLogic.publishFrame(0);
+		gameLogic.getFrames().update();
+		RenderSnapshot snapshot = gameLogic.getFrames().getFront();
+		bulletsStart = world.getEntities().size();
+		shipStart = bulletsStart + world.getBullets().size();
+
+		// the same frame for the rasterizer, which only draws into TYPE_INT_RGB images
+		rasterizer = new SpriteRasterizer(graphicsMan.getAtlas(), snapshot.getCapacity());
+		rasterizer.setTarget(new BufferedImage(Fixtures.WIDTH, Fixtures.HEIGHT, BufferedImage.TYPE_INT_RGB));
+		for(int i=0; i<snapshot.size(); i++){
+			rasterizer.add(snapshot.getSprite(i), snapshot.getInterpolatedX(i, 1f), snapshot.getInterpolatedY(i, 1f));
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		g2d.dispose();
+	}
+
+	@Benchmark
+	public void drawBullets() {
+		drawFrame(bulletsStart, shipStart);
+	}
+
+	/**
+	 * Draws the asteroids, the enemy ship and the boss ship.
+	 */
+	@Benchmark
+	public void drawEnemies() {
+		drawFrame(0, bulletsStart);
+	}
+
+	/**
+	 * Draws the ship and the explosions.
+	 */
+	@Benchmark
+	public void drawShipAndExplosions() {
+		drawFrame(shipStart, gameLogic.getFrames().getFront().size());
+	}
+
+	/**
+	 * Draws the scrolling background, a frame further each time.
+	 */
+	@Benchmark
+	public void drawStarfield() {
+		starfield.draw(g2d, frame++);
+	}
+
+	/**
+	 * Draws everything with a sprite from a published frame, the way the game screen does.
+	 */
+	@Benchmark
+	public void drawWorld() {
+		drawFrame(0, gameLogic.getFrames().getFront().size());
+	}
+
+	/**
+	 * Draws a range of the published frame's sprites.
+	 */
+	private void drawFrame(int from, int to) {
+		RenderSnapshot frame = gameLogic.getFrames().getFront();
+		for(int i=from; i<to; i++){
+			graphicsMan.drawSprite(frame.getSprite(i), frame.getInterpolatedX(i, 1f), frame.getInterpolatedY(i, 1f),
+					g2d, null);
+		}
+	}
+
+	/**
+	 * Draws the same sprites as drawWorld() with the software rasterizer, on one thread.
+	 */
+	@Benchmark
+	public void rasterizeWorld() {
+		rasterizer.draw(0, 0, Fixtures.WIDTH, Fixtures.HEIGHT);
+	}
+
+	/**
+	 * Draws the same sprites with the software rasterizer, in bands of 16 rows on the common pool.
+	 */
+	@Benchmark
+	public void rasterizeWorldInBands() {
+		bands.run((Fixtures.HEIGHT + 15) / 16, rasterizeBandsTask);
+	}
+
+	private final ParallelRanges.RangeTask rasterizeBandsTask = new ParallelRanges.RangeTask(){
+		public long run(int from, int to) {
+			rasterizer.draw(0, from * 16, Fixtures.WIDTH, to * 16);
+			return 0;
+		}
+	};
+
+	/**
+	 * Copies the world into a frame for the render thread, like the game loop does after its steps.
+	 * @return the number of sprites in the frame
+	 */
+	@Benchmark
+	public int publishFrame() {
+		gameLogic.publishFrame(frame++);
+		TripleBuffer<RenderSnapshot> frames = gameLogic.getFrames();
+		frames.update();
+		return frames.getFront().size();
+	}
+}
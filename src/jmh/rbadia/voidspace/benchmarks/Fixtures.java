@@ -0,0 +1,50 @@
+package rbadia.voidspace.benchmarks;
+
+import java.util.Random;
+
+import rbadia.voidspace.model.Asteroid;
+import rbadia.voidspace.model.Bullet;
+import rbadia.voidspace.model.EntityStore;
+import rbadia.voidspace.model.Ship;
+import rbadia.voidspace.model.World;
+
+/**
+ * Shared set up for the benchmarks.
+ */
+final class Fixtures {
+	static final int WIDTH = 500;
+	static final int HEIGHT = 400;
+	static final long SEED = 42;
+
+	private Fixtures() {
+	}
+
+	/**
+	 * Creates an empty game world with room for the given number of enemies, bullets and particles.
+	 */
+	static World world(int count) {
+		return new World(WIDTH, HEIGHT, count, count, count);
+	}
+
+	/**
+	 * Adds bullets spread over the top half of the screen, away from the given ship.
+	 */
+	static void addBullets(EntityStore bullets, Ship ship, int count, Random rand) {
+		for(int i=0; i<count; i++){
+			int index = bullets.indexOf(Bullet.fire(bullets, ship));
+			bullets.setLocation(index, rand.nextInt(WIDTH - Bullet.WIDTH), rand.nextInt(HEIGHT / 2 - Bullet.HEIGHT));
+		}
+	}
+
+	/**
+	 * Adds asteroids spread over the bottom half of the screen, below the bullets and above the ship.
+	 */
+	static void addAsteroids(World world, Ship ship, int count, Random rand) {
+		EntityStore entities = world.getEntities();
+		int band = ship.getY() - Asteroid.HEIGHT - HEIGHT / 2;
+		for(int i=0; i<count; i++){
+			int index = entities.indexOf(world.spawnAsteroid(rand));
+			entities.setLocation(index, entities.x[index], HEIGHT / 2 + rand.nextInt(band));
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package rbadia.voidspace.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JLabel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rbadia.voidspace.main.GameLogic;
+import rbadia.voidspace.main.GameScreen;
+import rbadia.voidspace.main.GameStatus;
+import rbadia.voidspace.main.RenderSnapshot;
+import rbadia.voidspace.main.TripleBuffer;
+import rbadia.voidspace.sounds.SoundManager;
+
+/**
+ * Measures whole game ticks: a simulation step alone, and a simulation step plus drawing its frame
+ * with {@link GameScreen#drawScreen(RenderSnapshot, float)}. The game keeps running and firing for
+ * as long as it's measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TickBenchmark {
+	// fire a bullet every 12 ticks, like a player holding down the fire key
+	private static final int FIRE_INTERVAL = GameLogic.TICKS_PER_SECOND / 5;
+
+	// asteroids and enemy ships in each wave
+	@Param({"2", "200", "3000"})
+	public int waveSize;
+
+	private GameLogic gameLogic;
+	private GameScreen gameScreen;
+	private long ticks;
+
+	@Setup
+	public void setUp() {
+		gameLogic = new GameLogic(Fixtures.WIDTH, Fixtures.HEIGHT, new SoundManager(false), Fixtures.SEED);
+		gameLogic.setWave(waveSize, waveSize, 1);
+		gameScreen = new GameScreen();
+		gameScreen.setShipsValueLabel(new JLabel());
+		gameScreen.setAsteroidsDestroyedValueLabel(new JLabel());
+		gameScreen.setShipsDestroyedValueLabel(new JLabel());
+		gameScreen.setPointsValueLabel(new JLabel());
+		gameScreen.setLevelValueLabel(new JLabel());
+		gameScreen.setGameLogic(gameLogic);
+	}
+
+	@Benchmark
+	public long updateWorld() {
+		prepareTick();
+		gameLogic.updateWorld();
+		return gameLogic.getChecksum();
+	}
+
+	/**
+	 * A step and its frame, on one thread. There is no render loop here, so the benchmark thread
+	 * is the frames' only reader.
+	 */
+	@Benchmark
+	public void updateScreen() {
+		prepareTick();
+		gameLogic.updateWorld();
+		gameLogic.publishFrame(System.nanoTime());
+		TripleBuffer<RenderSnapshot> frames = gameLogic.getFrames();
+		frames.update();
+		gameScreen.drawScreen(frames.getFront(), 1f);
+	}
+
+	/**
+	 * Keeps the game going: starts a new one whenever it is over and fires on a fixed cadence.
+	 */
+	private void prepareTick() {
+		GameStatus status = gameLogic.getStatus();
+		if(!status.isGameStarted() && !status.isGameStarting() && !status.isGameOver()){
+			gameLogic.newGame();
+		}
+		gameLogic.checkConditions();
+		if(status.isGameStarted() && !status.isNewShip() && ticks++ % FIRE_INTERVAL == 0){
+			gameLogic.fireBullet();
+		}
+	}
+}
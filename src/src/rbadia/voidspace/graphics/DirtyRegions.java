@@ -0,0 +1,158 @@
+package rbadia.voidspace.graphics;
+
+/**
+ * A list of rectangles of the screen that need redrawing, kept in primitive arrays so that
+ * tracking them every frame doesn't allocate memory. Rectangles are clipped to the screen as they
+ * are added; merge() then combines overlapping ones, so every pixel is redrawn only once.
+ * <p>
+ * Past the maximum number of rectangles, they all collapse into their bounding box.
+ */
+public class DirtyRegions {
+	private final int screenWidth;
+	private final int screenHeight;
+
+	// left, top, right and bottom edges; the right and bottom edges are exclusive
+	private final int[] x0;
+	private final int[] y0;
+	private final int[] x1;
+	private final int[] y1;
+	private int count;
+
+	/**
+	 * Creates a new, empty list of regions.
+	 * @param screenWidth the width of the screen
+	 * @param screenHeight the height of the screen
+	 * @param maxRegions the maximum number of rectangles to keep apart
+	 */
+	public DirtyRegions(int screenWidth, int screenHeight, int maxRegions) {
+		this.screenWidth = screenWidth;
+		this.screenHeight = screenHeight;
+		this.x0 = new int[maxRegions];
+		this.y0 = new int[maxRegions];
+		this.x1 = new int[maxRegions];
+		this.y1 = new int[maxRegions];
+	}
+
+	/**
+	 * Adds a rectangle. Empty rectangles and the parts off screen are left out.
+	 * @param x the left edge
+	 * @param y the top edge
+	 * @param width the rectangle width
+	 * @param height the rectangle height
+	 */
+	public void add(int x, int y, int width, int height) {
+		int left = Math.max(x, 0);
+		int top = Math.max(y, 0);
+		int right = Math.min(x + width, screenWidth);
+		int bottom = Math.min(y + height, screenHeight);
+		if(left >= right || top >= bottom){
+			return;
+		}
+		if(count == x0.length){
+			// too many to keep apart, so grow the first one to cover them all
+			collapse();
+			include(0, left, top, right, bottom);
+			return;
+		}
+		x0[count] = left;
+		y0[count] = top;
+		x1[count] = right;
+		y1[count] = bottom;
+		count++;
+	}
+
+	/**
+	 * Adds all the rectangles of another list.
+	 * @param other the other list
+	 */
+	public void addAll(DirtyRegions other) {
+		for(int i=0; i<other.count; i++){
+			add(other.x0[i], other.y0[i], other.x1[i] - other.x0[i], other.y1[i] - other.y0[i]);
+		}
+	}
+
+	/**
+	 * Combines overlapping (or touching) rectangles into their bounding boxes, until no two overlap.
+	 */
+	public void merge() {
+		boolean merged = true;
+		while(merged){
+			merged = false;
+			for(int i=0; i<count; i++){
+				for(int j=i + 1; j<count; j++){
+					if(x0[j] <= x1[i] && x0[i] <= x1[j] && y0[j] <= y1[i] && y0[i] <= y1[j]){
+						include(i, x0[j], y0[j], x1[j], y1[j]);
+						removeAt(j);
+						j--;
+						merged = true;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes all rectangles.
+	 */
+	public void clear() {
+		count = 0;
+	}
+
+	/**
+	 * Returns the number of rectangles.
+	 * @return the number of rectangles
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Returns the total area of the rectangles (overlaps count twice until they are merged).
+	 * @return the area in pixels
+	 */
+	public int getArea() {
+		int area = 0;
+		for(int i=0; i<count; i++){
+			area += (x1[i] - x0[i]) * (y1[i] - y0[i]);
+		}
+		return area;
+	}
+
+	public int getX(int i) {
+		return x0[i];
+	}
+
+	public int getY(int i) {
+		return y0[i];
+	}
+
+	public int getWidth(int i) {
+		return x1[i] - x0[i];
+	}
+
+	public int getHeight(int i) {
+		return y1[i] - y0[i];
+	}
+
+	private void collapse() {
+		for(int i=1; i<count; i++){
+			include(0, x0[i], y0[i], x1[i], y1[i]);
+		}
+		count = Math.min(count, 1);
+	}
+
+	private void include(int i, int left, int top, int right, int bottom) {
+		x0[i] = Math.min(x0[i], left);
+		y0[i] = Math.min(y0[i], top);
+		x1[i] = Math.max(x1[i], right);
+		y1[i] = Math.max(y1[i], bottom);
+	}
+
+	private void removeAt(int i) {
+		count--;
+		x0[i] = x0[count];
+		y0[i] = y0[count];
+		x1[i] = x1[count];
+		y1[i] = y1[count];
+	}
+}
@@ -1,29 +1,56 @@
 package rbadia.voidspace.graphics;
 
+import java.awt.AlphaComposite;
+import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.Rectangle;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.Transparency;
 import java.awt.image.BufferedImage;
 import java.awt.image.ImageObserver;
+import java.io.IOException;
 
 import javax.imageio.ImageIO;
 import javax.swing.JOptionPane;
 
-import rbadia.voidspace.model.Asteroid;
-import rbadia.voidspace.model.Bullet;
-import rbadia.voidspace.model.EnemyShip;
-import rbadia.voidspace.model.Ship;
+import rbadia.voidspace.model.ParticlePool;
+import rbadia.voidspace.model.Sprite;
 
 /**
  * Manages and draws game graphics and images.
+ * <p>
+ * The game images are packed into a single {@link SpriteAtlas} at load time, and every sprite is
+ * drawn as a region of it. The atlas is converted to the pixel layout of the screen (see
+ * createCompatibleImage(int, int, int)), so drawing from it onto a back buffer created the same
+ * way is a plain copy that Java2D can keep in video memory, instead of a per-pixel conversion on
+ * every draw.
  */
 public class GraphicsManager {
-	private BufferedImage shipImg;
-	private BufferedImage enemyShipImg;
-	private BufferedImage bulletImg;
-	private BufferedImage asteroidImg;
-	private BufferedImage asteroidExplosionImg;
-	private BufferedImage shipExplosionImg;
-	private BufferedImage bossShipImg;
+	// image files, by sprite id
+	private static final String[] SPRITE_FILES = {
+		"ship.png", "enemyship.png", "rsz_1bienvenidovelezphoto.png", "asteroid.png", "bullet.png",
+		"asteroidExplosion.png", "shipExplosion.png"
+	};
+
+	// the widest the atlas may be
+	private static final int ATLAS_WIDTH = 128;
+
+	// debris particles: their size, and the colors each palette fades through, from the last
+	// fade step to the first (by ParticlePool palette)
+	private static final int PARTICLE_SIZE = 2;
+	private static final int[][] PARTICLE_GRADIENTS = {
+		{0x3C3228, 0x8C8070, 0xC8BEAA},
+		{0x6E1400, 0xFF8C1E, 0xFFF096}
+	};
+	private static final Color[][] PARTICLE_COLORS = new Color[ParticlePool.PALETTE_COUNT][];
+	static{
+		for(int p=0; p<PARTICLE_COLORS.length; p++){
+			PARTICLE_COLORS[p] = fadeColors(PARTICLE_GRADIENTS[p], ParticlePool.FADE_STEPS);
+		}
+	}
+
+	private SpriteAtlas atlas;
 	
 	/**
 	 * Creates a new graphics manager and loads the game images.
@@ -31,13 +58,11 @@ public class GraphicsManager {
 	public GraphicsManager(){
     	// load images
 		try {
-			this.shipImg = ImageIO.read(getClass().getResource("/rbadia/voidspace/graphics/ship.png"));
-			this.enemyShipImg = ImageIO.read(getClass().getResource("/rbadia/voidspace/graphics/enemyship.png"));
-			this.asteroidImg = ImageIO.read(getClass().getResource("/rbadia/voidspace/graphics/asteroid.png"));
-			this.asteroidExplosionImg = ImageIO.read(getClass().getResource("/rbadia/voidspace/graphics/asteroidExplosion.png"));
-			this.shipExplosionImg = ImageIO.read(getClass().getResource("/rbadia/voidspace/graphics/shipExplosion.png"));
-			this.bulletImg = ImageIO.read(getClass().getResource("/rbadia/voidspace/graphics/bullet.png"));
-			this.bossShipImg = ImageIO.read(getClass().getResource("/rbadia/voidspace/graphics/rsz_1bienvenidovelezphoto.png"));
+			BufferedImage[] images = new BufferedImage[Sprite.COUNT];
+			for(int i=0; i<images.length; i++){
+				images[i] = loadImage(SPRITE_FILES[i]);
+			}
+			this.atlas = SpriteAtlas.pack(images, ATLAS_WIDTH);
 		} catch (Exception e) {
 			JOptionPane.showMessageDialog(null, "The graphic files are either corrupt or missing.",
 					"VoidSpace - Fatal Error", JOptionPane.ERROR_MESSAGE);
@@ -47,72 +72,172 @@ public class GraphicsManager {
 	}
 
 	/**
-	 * Draws a ship image to the specified graphics canvas.
-	 * @param ship the ship to draw
-	 * @param g2d the graphics canvas
-	 * @param observer object to be notified
+	 * Returns the atlas all sprites are drawn from.
+	 * @return the sprite atlas
 	 */
-	public void drawShip(Ship ship, Graphics2D g2d, ImageObserver observer) {
-		g2d.drawImage(shipImg, ship.x, ship.y, observer);
+	public SpriteAtlas getAtlas() {
+		return atlas;
 	}
-	
+
 	/**
-	 * Draws an enemy ship image to the specified graphics canvas.
-	 * @param enemyShip the ship to draw
-	 * @param g2d the graphics canvas
-	 * @param observer object to be notified
+	 * Loads a game image.
+	 * @param name the image file name
+	 * @return the image
 	 */
-	public void drawEnemyShip(EnemyShip enemyShip, Graphics2D g2d, ImageObserver observer) {
-		g2d.drawImage(enemyShipImg, enemyShip.x, enemyShip.y, observer);
+	private BufferedImage loadImage(String name) throws IOException {
+		return ImageIO.read(getClass().getResource("/rbadia/voidspace/graphics/" + name));
 	}
 
 	/**
-	 * Draws a bullet image to the specified graphics canvas.
-	 * @param bullet the bullet to draw
-	 * @param g2d the graphics canvas
-	 * @param observer object to be notified
+	 * Returns the graphics configuration of the default screen.
+	 * @return the graphics configuration, or null when running headless
 	 */
-	public void drawBullet(Bullet bullet, Graphics2D g2d, ImageObserver observer) {
-		g2d.drawImage(bulletImg, bullet.x, bullet.y, observer);
+	public static GraphicsConfiguration getGraphicsConfiguration() {
+		if(GraphicsEnvironment.isHeadless()){
+			return null;
+		}
+		return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
 	}
 
 	/**
-	 * Draws an asteroid image to the specified graphics canvas.
-	 * @param asteroid the asteroid to draw
-	 * @param g2d the graphics canvas
-	 * @param observer object to be notified
+	 * Creates an image with the same pixel layout as the screen, e.g. for a back buffer. When
+	 * running headless, the image gets the integer layout closest to what a screen would use.
+	 * @param width the image width
+	 * @param height the image height
+	 * @param transparency one of the {@link Transparency} constants
+	 * @return the new image
 	 */
-	public void drawAsteroid(Asteroid asteroid, Graphics2D g2d, ImageObserver observer) {
-		g2d.drawImage(asteroidImg, asteroid.x, asteroid.y, observer);
+	public static BufferedImage createCompatibleImage(int width, int height, int transparency) {
+		GraphicsConfiguration gc = getGraphicsConfiguration();
+		if(gc != null){
+			return gc.createCompatibleImage(width, height, transparency);
+		}
+		return new BufferedImage(width, height,
+				transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE);
 	}
 
 	/**
-	 * Draws a ship explosion image to the specified graphics canvas.
-	 * @param shipExplosion the bounding rectangle of the explosion
-	 * @param g2d the graphics canvas
-	 * @param observer object to be notified
+	 * Returns a copy of an image with the same pixel layout as the screen, keeping its transparency.
+	 * @param image the image to convert
+	 * @return the compatible image
+	 */
+	public static BufferedImage toCompatibleImage(BufferedImage image) {
+		BufferedImage compatible = createCompatibleImage(image.getWidth(), image.getHeight(),
+				image.getColorModel().getTransparency());
+		Graphics2D g = compatible.createGraphics();
+		g.setComposite(AlphaComposite.Src);
+		g.drawImage(image, 0, 0, null);
+		g.dispose();
+		return compatible;
+	}
+
+	/**
+	 * Returns a line per game image telling its pixel layout and if Java2D keeps it in video memory.
+	 * Images only get accelerated after they have been drawn a few times.
+	 * @return the report lines
+	 */
+	public String[] getImageReport() {
+		BufferedImage image = atlas.getImage();
+		return new String[] {
+			describeImage("sprite atlas", image),
+			String.format("%-18s %dx%d, %d sprites", "", image.getWidth(), image.getHeight(), atlas.getCount())
+		};
+	}
+
+	/**
+	 * Describes an image for the image report.
+	 * @param name the image name
+	 * @param image the image
+	 * @return the report line
 	 */
-	public void drawShipExplosion(Rectangle shipExplosion, Graphics2D g2d, ImageObserver observer) {
-		g2d.drawImage(shipExplosionImg, shipExplosion.x, shipExplosion.y, observer);
+	public static String describeImage(String name, Image image) {
+		String layout = image instanceof BufferedImage ? imageTypeName(((BufferedImage) image).getType()) : "volatile";
+		GraphicsConfiguration gc = getGraphicsConfiguration();
+		String accelerated = gc == null ? "headless"
+				: image.getCapabilities(gc).isAccelerated() ? "accelerated" : "not accelerated";
+		return String.format("%-18s %-14s %s", name, layout, accelerated);
+	}
+
+	private static String imageTypeName(int type) {
+		switch(type){
+		case BufferedImage.TYPE_INT_RGB:
+			return "INT_RGB";
+		case BufferedImage.TYPE_INT_ARGB:
+			return "INT_ARGB";
+		case BufferedImage.TYPE_INT_ARGB_PRE:
+			return "INT_ARGB_PRE";
+		case BufferedImage.TYPE_INT_BGR:
+			return "INT_BGR";
+		case BufferedImage.TYPE_3BYTE_BGR:
+			return "3BYTE_BGR";
+		case BufferedImage.TYPE_4BYTE_ABGR:
+			return "4BYTE_ABGR";
+		case BufferedImage.TYPE_4BYTE_ABGR_PRE:
+			return "4BYTE_ABGR_PRE";
+		case BufferedImage.TYPE_BYTE_INDEXED:
+			return "BYTE_INDEXED";
+		default:
+			return "type " + type;
+		}
 	}
 
 	/**
-	 * Draws an asteroid explosion image to the specified graphics canvas.
-	 * @param asteroidExplosion the bounding rectangle of the explosion
+	 * Draws a sprite to the specified graphics canvas.
+	 * @param id the {@link Sprite} id
+	 * @param dx the x coordinate to draw it at
+	 * @param dy the y coordinate to draw it at
 	 * @param g2d the graphics canvas
 	 * @param observer object to be notified
 	 */
-	public void drawAsteroidExplosion(Rectangle asteroidExplosion, Graphics2D g2d, ImageObserver observer) {
-		g2d.drawImage(asteroidExplosionImg, asteroidExplosion.x, asteroidExplosion.y, observer);
+	public void drawSprite(int id, int dx, int dy, Graphics2D g2d, ImageObserver observer) {
+		int sx = atlas.getX(id);
+		int sy = atlas.getY(id);
+		int w = atlas.getWidth(id);
+		int h = atlas.getHeight(id);
+		g2d.drawImage(atlas.getImage(), dx, dy, dx + w, dy + h, sx, sy, sx + w, sy + h, observer);
 	}
 
 	/**
-	 * Draws a boss ship image to specified graphics canvas.
-	 * @param bossShip the bounding rectangle of the explosion
+	 * Draws a debris particle to the specified graphics canvas.
+	 * @param palette the {@link ParticlePool} palette
+	 * @param fade how far the particle has faded, from ParticlePool.FADE_STEPS - 1 when new to 0
+	 * @param x the x coordinate of the particle
+	 * @param y the y coordinate of the particle
 	 * @param g2d the graphics canvas
-	 * @param observer object to be notified
 	 */
-	public void drawBossShip(Rectangle bossShip, Graphics2D g2d, ImageObserver observer) {
-		g2d.drawImage(bossShipImg, bossShip.x, bossShip.y, observer );
+	public void drawParticle(int palette, int fade, int x, int y, Graphics2D g2d) {
+		g2d.setColor(PARTICLE_COLORS[palette][fade]);
+		g2d.fillRect(x, y, PARTICLE_SIZE, PARTICLE_SIZE);
+	}
+
+	/**
+	 * Returns the size of a debris particle, e.g. to know what it covers.
+	 * @return the width and height of a particle
+	 */
+	public int getParticleSize() {
+		return PARTICLE_SIZE;
+	}
+
+	/**
+	 * Spreads a gradient of RGB colors over a number of steps, once, so drawing particles doesn't
+	 * create colors.
+	 * @param stops the colors, evenly spaced from the first step to the last
+	 * @param steps the number of steps
+	 * @return a color per step
+	 */
+	private static Color[] fadeColors(int[] stops, int steps) {
+		Color[] colors = new Color[steps];
+		for(int i=0; i<steps; i++){
+			float position = (float) i * (stops.length - 1) / (steps - 1);
+			int stop = Math.min((int) position, stops.length - 2);
+			float t = position - stop;
+			int from = stops[stop];
+			int to = stops[stop + 1];
+			int r = Math.round((from >> 16 & 0xFF) * (1 - t) + (to >> 16 & 0xFF) * t);
+			int g = Math.round((from >> 8 & 0xFF) * (1 - t) + (to >> 8 & 0xFF) * t);
+			int b = Math.round((from & 0xFF) * (1 - t) + (to & 0xFF) * t);
+			colors[i] = new Color(r, g, b);
+		}
+		return colors;
 	}
 }
@@ -0,0 +1,148 @@
+package rbadia.voidspace.graphics;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * All of the game's sprites packed into a single image, with a table of the region each sprite
+ * takes up. Drawing every sprite from one image means a single image to convert, accelerate and
+ * cache, and no switching between images while drawing a frame.
+ * <p>
+ * The sprites are packed at startup in rows ("shelves"), tallest first, with a pixel of empty
+ * space around each so that scaled drawing never picks up a neighbour's pixels.
+ */
+public class SpriteAtlas {
+	private static final int PADDING = 1;
+
+	private final BufferedImage image;
+	private final int[] regionX;
+	private final int[] regionY;
+	private final int[] regionWidth;
+	private final int[] regionHeight;
+
+	private SpriteAtlas(BufferedImage image, int[] regionX, int[] regionY, int[] regionWidth, int[] regionHeight) {
+		this.image = image;
+		this.regionX = regionX;
+		this.regionY = regionY;
+		this.regionWidth = regionWidth;
+		this.regionHeight = regionHeight;
+	}
+
+	/**
+	 * Packs images into a new atlas, converted to the screen's pixel layout.
+	 * @param images the images, by sprite id
+	 * @param maxWidth the widest the atlas may be (it grows wider if a single image needs it)
+	 * @return the atlas
+	 */
+	public static SpriteAtlas pack(BufferedImage[] images, int maxWidth) {
+		int count = images.length;
+		int[] regionX = new int[count];
+		int[] regionY = new int[count];
+		int[] regionWidth = new int[count];
+		int[] regionHeight = new int[count];
+
+		// tallest first, so each shelf wastes little height; ties keep the sprite id order
+		int[] order = new int[count];
+		for(int i=0; i<count; i++){
+			order[i] = i;
+			regionWidth[i] = images[i].getWidth();
+			regionHeight[i] = images[i].getHeight();
+			maxWidth = Math.max(maxWidth, regionWidth[i] + 2 * PADDING);
+		}
+		for(int i=1; i<count; i++){
+			int id = order[i];
+			int j = i - 1;
+			while(j >= 0 && regionHeight[order[j]] < regionHeight[id]){
+				order[j + 1] = order[j];
+				j--;
+			}
+			order[j + 1] = id;
+		}
+
+		// fill shelves left to right, starting a new shelf when the next sprite doesn't fit
+		int x = 0;
+		int shelfY = 0;
+		int shelfHeight = 0;
+		int width = 0;
+		for(int k=0; k<count; k++){
+			int id = order[k];
+			int w = regionWidth[id] + 2 * PADDING;
+			int h = regionHeight[id] + 2 * PADDING;
+			if(x + w > maxWidth){
+				shelfY += shelfHeight;
+				x = 0;
+				shelfHeight = 0;
+			}
+			regionX[id] = x + PADDING;
+			regionY[id] = shelfY + PADDING;
+			x += w;
+			shelfHeight = Math.max(shelfHeight, h);
+			width = Math.max(width, x);
+		}
+		int height = shelfY + shelfHeight;
+
+		BufferedImage image = GraphicsManager.createCompatibleImage(Math.max(width, 1), Math.max(height, 1),
+				Transparency.TRANSLUCENT);
+		Graphics2D g = image.createGraphics();
+		g.setComposite(AlphaComposite.Src);
+		for(int i=0; i<count; i++){
+			g.drawImage(images[i], regionX[i], regionY[i], null);
+		}
+		g.dispose();
+		return new SpriteAtlas(image, regionX, regionY, regionWidth, regionHeight);
+	}
+
+	/**
+	 * Returns the atlas image.
+	 * @return the atlas image
+	 */
+	public BufferedImage getImage() {
+		return image;
+	}
+
+	/**
+	 * Returns the number of sprites in the atlas.
+	 * @return the number of sprites
+	 */
+	public int getCount() {
+		return regionX.length;
+	}
+
+	/**
+	 * Returns the x coordinate of a sprite's region in the atlas image.
+	 * @param id the sprite id
+	 * @return the left edge of the region
+	 */
+	public int getX(int id) {
+		return regionX[id];
+	}
+
+	/**
+	 * Returns the y coordinate of a sprite's region in the atlas image.
+	 * @param id the sprite id
+	 * @return the top edge of the region
+	 */
+	public int getY(int id) {
+		return regionY[id];
+	}
+
+	/**
+	 * Returns the width of a sprite.
+	 * @param id the sprite id
+	 * @return the sprite width
+	 */
+	public int getWidth(int id) {
+		return regionWidth[id];
+	}
+
+	/**
+	 * Returns the height of a sprite.
+	 * @param id the sprite id
+	 * @return the sprite height
+	 */
+	public int getHeight(int id) {
+		return regionHeight[id];
+	}
+}
@@ -0,0 +1,67 @@
+package rbadia.voidspace.graphics;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+/**
+ * Scrolling star background with parallax: a few layers of stars, the far ones dimmer and slower
+ * than the near ones. Each layer is drawn once into an image that tiles vertically, so drawing the
+ * background is two image copies per layer, however many stars there are.
+ * <p>
+ * The far layer is opaque and black, so drawing the starfield also erases the screen.
+ */
+public class Starfield {
+	// per layer, far to near: number of stars, scroll speed (pixels per tick) and color
+	private static final int[] STAR_COUNTS = {60, 30, 12};
+	private static final double[] SPEEDS = {0.25, 0.5, 1.0};
+	private static final Color[] COLORS = {Color.DARK_GRAY, Color.LIGHT_GRAY, Color.WHITE};
+
+	private final int height;
+	private final BufferedImage[] layers;
+
+	/**
+	 * Creates a new starfield, drawing its layers.
+	 * @param width the width of the screen
+	 * @param height the height of the screen
+	 * @param density how many times the default number of stars to draw
+	 * @param seed the seed to place the stars with
+	 */
+	public Starfield(int width, int height, int density, long seed) {
+		this.height = height;
+		this.layers = new BufferedImage[STAR_COUNTS.length];
+		Random rand = new Random(seed);
+		for(int l=0; l<layers.length; l++){
+			BufferedImage layer = GraphicsManager.createCompatibleImage(width, height,
+					l == 0 ? Transparency.OPAQUE : Transparency.BITMASK);
+			Graphics2D g = layer.createGraphics();
+			if(l == 0){
+				g.setColor(Color.BLACK);
+				g.fillRect(0, 0, width, height);
+			}
+			g.setColor(COLORS[l]);
+			for(int i=0, n=STAR_COUNTS[l] * density; i<n; i++){
+				int x = rand.nextInt(width);
+				int y = rand.nextInt(height);
+				g.drawLine(x, y, x, y);
+			}
+			g.dispose();
+			layers[l] = layer;
+		}
+	}
+
+	/**
+	 * Draws the starfield, scrolled down to the given time.
+	 * @param g2d the graphics canvas
+	 * @param time the game time, in ticks (fractions of a tick scroll smoothly)
+	 */
+	public void draw(Graphics2D g2d, double time) {
+		for(int l=0; l<layers.length; l++){
+			int offset = (int) ((long) (time * SPEEDS[l]) % height);
+			g2d.drawImage(layers[l], 0, offset, null);
+			g2d.drawImage(layers[l], 0, offset - height, null);
+		}
+	}
+}
@@ -0,0 +1,197 @@
+package rbadia.voidspace.graphics;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.font.FontRenderContext;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Draws text from a cache of pre-rendered strings. The first time a string is drawn in a font and
+ * color, its glyphs are laid out and rasterized once into an image; after that, drawing it is an
+ * image copy, or a scaled copy to draw it at a smaller size (e.g. a growing title). The least
+ * recently used strings are dropped once the cache is full.
+ * <p>
+ * Meant for the fixed messages of the game screens; text that changes every frame (e.g. the
+ * frame timing overlay) would only churn the cache.
+ */
+public class TextRenderer {
+	/**
+	 * A string rendered into an image. The image covers the glyphs' ink, which can reach past the
+	 * string's advance width (e.g. the overhang of italic letters); it is drawn at an offset from
+	 * the start of the baseline. Layout goes by the font's metrics: getWidth() is the advance
+	 * width, and getAscent() is the font's.
+	 */
+	public static final class Text {
+		private final BufferedImage image;
+		// the top left corner of the image, relative to the start of the baseline
+		private final int imageX;
+		private final int imageY;
+		private final int width;
+		private final int ascent;
+
+		private Text(BufferedImage image, int imageX, int imageY, int width, int ascent) {
+			this.image = image;
+			this.imageX = imageX;
+			this.imageY = imageY;
+			this.width = width;
+			this.ascent = ascent;
+		}
+
+		public BufferedImage getImage() {
+			return image;
+		}
+
+		public int getWidth() {
+			return width;
+		}
+
+		public int getAscent() {
+			return ascent;
+		}
+	}
+
+	/**
+	 * Cache key: a string in a font and color.
+	 */
+	private static final class Key {
+		String text;
+		Font font;
+		int rgb;
+
+		Key(String text, Font font, int rgb) {
+			this.text = text;
+			this.font = font;
+			this.rgb = rgb;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(!(o instanceof Key)){
+				return false;
+			}
+			Key other = (Key) o;
+			return rgb == other.rgb && text.equals(other.text) && font.equals(other.font);
+		}
+
+		@Override
+		public int hashCode() {
+			return (text.hashCode() * 31 + font.hashCode()) * 31 + rgb;
+		}
+	}
+
+	private final Map<Key, Text> cache;
+	// reused for lookups, so a cache hit doesn't allocate
+	private final Key lookup = new Key("", null, 0);
+
+	// for measuring text without drawing it
+	private final Graphics2D measure;
+
+	private long hits;
+	private long misses;
+
+	/**
+	 * Creates a new text renderer.
+	 * @param maxStrings the most strings to keep rendered
+	 */
+	public TextRenderer(final int maxStrings) {
+		// access order, so iteration starts at the least recently used string
+		this.cache = new LinkedHashMap<Key, Text>(maxStrings * 2, 0.75f, true){
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Text> eldest) {
+				return size() > maxStrings;
+			}
+		};
+		this.measure = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+	}
+
+	/**
+	 * Returns a string rendered in a font and color, from the cache if it is there.
+	 * @param text the string
+	 * @param font the font
+	 * @param color the color
+	 * @return the rendered string
+	 */
+	public Text getText(String text, Font font, Color color) {
+		lookup.text = text;
+		lookup.font = font;
+		lookup.rgb = color.getRGB();
+		Text cached = cache.get(lookup);
+		if(cached != null){
+			hits++;
+			return cached;
+		}
+		misses++;
+		Text rendered = render(text, font, color);
+		cache.put(new Key(text, font, color.getRGB()), rendered);
+		return rendered;
+	}
+
+	/**
+	 * Draws a rendered string scaled down (or up), with its baseline starting at the given point.
+	 * @param g2d the graphics canvas
+	 * @param t the rendered string
+	 * @param scale the scale to draw it at
+	 * @param x the x coordinate of the start of the baseline
+	 * @param y the y coordinate of the baseline
+	 */
+	public void drawScaled(Graphics2D g2d, Text t, float scale, int x, int y) {
+		if(scale == 1f){
+			g2d.drawImage(t.image, x + t.imageX, y + t.imageY, null);
+			return;
+		}
+		// filter on a copy of the canvas, so the sprites drawn next aren't filtered
+		Graphics2D g = (Graphics2D) g2d.create();
+		g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		g.drawImage(t.image, x + Math.round(t.imageX * scale), y + Math.round(t.imageY * scale),
+				Math.round(t.image.getWidth() * scale), Math.round(t.image.getHeight() * scale), null);
+		g.dispose();
+	}
+
+	/**
+	 * Returns the metrics of a font, e.g. to measure text.
+	 * @param font the font
+	 * @return the font metrics
+	 */
+	public FontMetrics getFontMetrics(Font font) {
+		return measure.getFontMetrics(font);
+	}
+
+	/**
+	 * Describes how well the cache does, for the frame timing overlay.
+	 * @return the report line
+	 */
+	public String describeCache() {
+		long lookups = hits + misses;
+		return String.format("%-18s %d strings, %d hits, %d misses (%.1f%% hits)", "text cache", cache.size(),
+				hits, misses, lookups == 0 ? 0.0 : 100.0 * hits / lookups);
+	}
+
+	private Text render(String text, Font font, Color color) {
+		FontMetrics fm = measure.getFontMetrics(font);
+		// size the image by the glyphs' ink, with a pixel to spare for antialiased edges
+		FontRenderContext frc = measure.getFontRenderContext();
+		Rectangle ink = font.createGlyphVector(frc, text).getPixelBounds(frc, 0, 0);
+		int imageX = ink.x - 1;
+		int imageY = ink.y - 1;
+		int width = Math.max(ink.width + 2, 1);
+		int height = Math.max(ink.height + 2, 1);
+		BufferedImage image = GraphicsManager.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+		Graphics2D g = image.createGraphics();
+		g.setComposite(AlphaComposite.Src);
+		g.setFont(font);
+		g.setColor(color);
+		g.drawString(text, -imageX, -imageY);
+		g.dispose();
+		return new Text(image, imageX, imageY, fm.stringWidth(text), fm.getAscent());
+	}
+}
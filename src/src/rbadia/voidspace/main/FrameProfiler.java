@@ -0,0 +1,211 @@
+package rbadia.voidspace.main;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import rbadia.voidspace.model.EntityStore;
+import rbadia.voidspace.model.ParticlePool;
+import rbadia.voidspace.model.SpatialGrid;
+
+/**
+ * Times each phase of a frame and keeps a latency histogram per phase. Also keeps the text of the
+ * in-game debug overlay and writes the statistics to a CSV file on demand.
+ * <p>
+ * The simulation phases are recorded by the game loop thread, and drawing and presenting by the
+ * render thread. The histograms are not synchronized, so the overlay (built on the render thread)
+ * and the CSV file are close, not exact, while the game runs.
+ */
+public class FrameProfiler {
+	/**
+	 * The timed phases of a frame.
+	 */
+	public enum Phase {
+		CHECK_CONDITIONS, MOVEMENT, COLLISION, HANDLE_INPUT, DRAW, PRESENT, FRAME
+	}
+
+	// how often the overlay text is refreshed, in nanoseconds
+	private static final long OVERLAY_REFRESH_NANOS = 500000000L;
+
+	private final LatencyHistogram[] histograms = new LatencyHistogram[Phase.values().length];
+	private final List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+
+	private volatile boolean overlayVisible;
+	// the outcome of the last CSV dump, for the overlay
+	private volatile String dumpStatus;
+
+	private String[] overlayLines = new String[0];
+	private long lastOverlayRefresh;
+
+	/**
+	 * Creates a new frame profiler.
+	 */
+	public FrameProfiler() {
+		for(int i=0; i<histograms.length; i++){
+			histograms[i] = new LatencyHistogram();
+		}
+	}
+
+	/**
+	 * Record how long a phase took.
+	 * @param phase the phase
+	 * @param nanos the time it took, in nanoseconds
+	 */
+	public void record(Phase phase, long nanos) {
+		histograms[phase.ordinal()].record(nanos);
+	}
+
+	/**
+	 * Returns the histogram for a phase.
+	 * @param phase the phase
+	 * @return the histogram of the phase's durations
+	 */
+	public LatencyHistogram getHistogram(Phase phase) {
+		return histograms[phase.ordinal()];
+	}
+
+	/**
+	 * Forget all recorded timings.
+	 */
+	public void reset() {
+		for(int i=0; i<histograms.length; i++){
+			histograms[i].reset();
+		}
+	}
+
+	/**
+	 * Show or hide the debug overlay. The statistics start over every time it is shown.
+	 */
+	public void toggleOverlay() {
+		overlayVisible = !overlayVisible;
+		if(overlayVisible){
+			// the game thread picks this up on the next frame
+			lastOverlayRefresh = 0;
+		}
+	}
+
+	/**
+	 * Indicates if the debug overlay should be drawn.
+	 * @return if the debug overlay should be drawn
+	 */
+	public boolean isOverlayVisible() {
+		return overlayVisible;
+	}
+
+	/**
+	 * Returns the lines of text to draw on the debug overlay. The text is only rebuilt a couple
+	 * of times per second, so drawing the overlay doesn't skew the numbers it shows.
+	 * @param gameLogic the game logic, to report on the game world
+	 * @return the overlay text lines
+	 */
+	public String[] getOverlayLines(GameLogic gameLogic) {
+		long now = System.nanoTime();
+		if(lastOverlayRefresh == 0){
+			reset();
+			lastOverlayRefresh = now;
+		}
+		else if(now - lastOverlayRefresh >= OVERLAY_REFRESH_NANOS){
+			lastOverlayRefresh = now;
+			Phase[] phases = Phase.values();
+			EntityStore bullets = gameLogic.getWorld().getBullets();
+			SpatialGrid grid = gameLogic.getCollisionGrid();
+			ParticlePool particles = gameLogic.getWorld().getParticles();
+			String status = dumpStatus;
+			String[] lines = new String[phases.length + (status != null ? 7 : 6)];
+			lines[0] = String.format("%-16s %8s %8s %8s", "phase (us)", "p50", "p99", "max");
+			for(int i=0; i<phases.length; i++){
+				LatencyHistogram h = histograms[i];
+				lines[i + 1] = String.format("%-16s %8.1f %8.1f %8.1f", phases[i].name().toLowerCase(),
+						h.getPercentile(0.5) / 1000.0, h.getPercentile(0.99) / 1000.0, h.getMax() / 1000.0);
+			}
+			lines[phases.length + 1] = "entities: " + gameLogic.getEntityCount();
+			lines[phases.length + 2] = "bullets: " + bullets.size() + "/" + bullets.getCapacity()
+					+ " (peak " + bullets.getPeakSize() + ", dropped " + bullets.getDroppedCount() + ")";
+			lines[phases.length + 3] = "collision pairs tested: " + grid.getPairsTested() + " last tick";
+			lines[phases.length + 4] = "particles: " + particles.size() + "/" + particles.getCapacity()
+					+ " (peak " + particles.getPeakSize() + ", dropped " + particles.getDroppedCount() + ")";
+			lines[phases.length + 5] = "gc: " + getGcCount() + " collections, " + getGcTime() + " ms";
+			if(status != null){
+				lines[phases.length + 6] = status;
+			}
+			overlayLines = lines;
+		}
+		return overlayLines;
+	}
+
+	/**
+	 * Returns the total number of garbage collections so far.
+	 * @return the number of garbage collections
+	 */
+	public long getGcCount() {
+		long total = 0;
+		for(int i=0; i<gcBeans.size(); i++){
+			total += Math.max(0, gcBeans.get(i).getCollectionCount());
+		}
+		return total;
+	}
+
+	/**
+	 * Returns the total time spent in garbage collection so far.
+	 * @return the garbage collection time, in milliseconds
+	 */
+	public long getGcTime() {
+		long total = 0;
+		for(int i=0; i<gcBeans.size(); i++){
+			total += Math.max(0, gcBeans.get(i).getCollectionTime());
+		}
+		return total;
+	}
+
+	/**
+	 * Write the statistics to a CSV file in the working directory. The file is written on a
+	 * thread of its own, so neither the game loop nor the render loop waits for the disk while
+	 * their timings are recorded; the overlay shows the file name, or why it couldn't be written.
+	 * Safe to call from any thread.
+	 */
+	public void requestDump() {
+		final File file = new File("voidspace-frame-stats-" + System.currentTimeMillis() + ".csv");
+		Thread writer = new Thread("frame stats"){
+			public void run() {
+				try{
+					writeCsv(file);
+					dumpStatus = "stats: " + file.getName();
+				}
+				catch(IOException e){
+					dumpStatus = "stats: couldn't write " + file.getName() + " (" + e.getMessage() + ")";
+				}
+			}
+		};
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Write the statistics of every phase to a CSV file. Durations are in nanoseconds.
+	 * @param file the file to write
+	 * @throws IOException if the file can't be written
+	 */
+	public void writeCsv(File file) throws IOException {
+		PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(file)));
+		try{
+			out.println("phase,count,mean_ns,p50_ns,p90_ns,p99_ns,max_ns");
+			Phase[] phases = Phase.values();
+			for(int i=0; i<phases.length; i++){
+				LatencyHistogram h = histograms[i];
+				out.println(phases[i].name().toLowerCase() + "," + h.getCount() + "," + h.getMean() + ","
+						+ h.getPercentile(0.5) + "," + h.getPercentile(0.9) + ","
+						+ h.getPercentile(0.99) + "," + h.getMax());
+			}
+			out.println("gc_count," + getGcCount() + ",,,,,");
+			out.println("gc_time_ms," + getGcTime() + ",,,,,");
+		}
+		finally{
+			out.close();
+		}
+	}
+}
@@ -1,49 +1,152 @@
 package rbadia.voidspace.main;
 
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
-import javax.swing.Timer;
-
-import rbadia.voidspace.model.Asteroid;
 import rbadia.voidspace.model.Bullet;
-import rbadia.voidspace.model.EnemyShip;
+import rbadia.voidspace.model.CollisionEventQueue;
+import rbadia.voidspace.model.Components;
+import rbadia.voidspace.model.EntityStore;
 import rbadia.voidspace.model.Ship;
+import rbadia.voidspace.model.SpatialGrid;
+import rbadia.voidspace.model.World;
 import rbadia.voidspace.sounds.SoundManager;
 
 
 /**
- * Handles general game logic and status.
+ * Handles general game logic and status. Runs the game world simulation, which does not need a
+ * game screen (or a display) to work.
+ * <p>
+ * The simulation is deterministic: all randomness comes from a single seeded generator and all
+ * delays are measured in ticks (simulation steps), so two runs with the same seed and input
+ * produce the same stream of state checksums. (Debris particles, which don't affect the game and
+ * aren't part of the checksum, have a generator of their own.)
  */
 public class GameLogic {
+	/** Number of simulation steps (ticks) per second of game time. */
+	public static final int TICKS_PER_SECOND = 60;
+
+	// delays, in ticks
+	private static final int NEW_SHIP_DELAY = TICKS_PER_SECOND / 2;
+	private static final int NEW_ASTEROID_DELAY = TICKS_PER_SECOND / 2;
+	private static final int GET_READY_DELAY = TICKS_PER_SECOND * 3 / 2;
+	private static final int GAME_OVER_DELAY = TICKS_PER_SECOND * 3;
+
+	// maximum number of bullets on screen at the same time
+	private static final int MAX_BULLETS = 256;
+	// maximum number of ships and asteroids in the game world
+	private static final int MAX_ENTITIES = 8192;
+	// maximum number of debris particles flying at the same time
+	private static final int MAX_PARTICLES = 2048;
+
+	// collision grid cell size, about the size of the largest sprite
+	private static final int GRID_CELL_SIZE = 64;
+
+	// smallest number of entities (or bullets) to split across threads; can be set with
+	// -Dvoidspace.parallelThreshold
+	private static final int PARALLEL_THRESHOLD = Integer.getInteger("voidspace.parallelThreshold", 2048);
+
+	// default wave of enemies
+	private static final int WAVE_ASTEROIDS = 2;
+	private static final int WAVE_ENEMY_SHIPS = 2;
+	private static final int WAVE_BOSS_SHIPS = 1;
+
+	// FNV-1a 64 bit constants, for the state checksum
+	private static final long CHECKSUM_OFFSET = 0xcbf29ce484222325L;
+	private static final long CHECKSUM_PRIME = 0x100000001b3L;
+
 	private GameScreen gameScreen;
+	private int width;
+	private int height;
 	private GameStatus status;
 	private SoundManager soundMan;
-	private ArrayList<Asteroid> asteroids = new ArrayList<>();
+	private World world;
+	private SpatialGrid grid;
+	private CollisionEventQueue events;
+	private ParallelRanges parallel;
+	// for each bullet, the first enemy it overlaps (filled in parallel)
+	private int[] bulletTargets;
 	private Ship ship;
-	private Asteroid asteroid;
-	private Asteroid secondAsteroid;
-	private EnemyShip enemyShip;
-	private EnemyShip secondEnemyShip;
-	private EnemyShip bossShip;
-	private List<Bullet> bullets;
+
+	private int waveAsteroids = WAVE_ASTEROIDS;
+	private int waveEnemyShips = WAVE_ENEMY_SHIPS;
+	private int waveBossShips = WAVE_BOSS_SHIPS;
+
+	private long tick;
+	private long checksum = CHECKSUM_OFFSET;
+
+	// timer events
+	private static final int END_GET_READY = 0;
+	private static final int END_GAME_OVER = 1;
+	private static final int RESPAWN_SHIP = 2;
+	private static final int RESPAWN_ENTITY = 3;
+
+	private final TimerWheel timers;
+	private int shipTimer = -1;
+
+	// set by other threads, read by the game loop
+	private volatile boolean newGameRequested;
+
+	private Random rand;
+
+	private FrameProfiler profiler = new FrameProfiler();
+
+	// frames handed to the render thread
+	private final TripleBuffer<RenderSnapshot> frames;
 
 	/**
 	 * Create a new game logic handler
 	 * @param gameScreen the game screen
 	 */
 	public GameLogic(GameScreen gameScreen){
+		this(gameScreen.getLogicalWidth(), gameScreen.getLogicalHeight(), new SoundManager(), System.nanoTime());
 		this.gameScreen = gameScreen;
+	}
+
+	/**
+	 * Create a new game logic handler without a game screen, e.g. for headless simulation runs.
+	 * @param width the width of the game world
+	 * @param height the height of the game world
+	 * @param soundMan the sound manager
+	 * @param seed the seed for all of the simulation's random numbers
+	 */
+	public GameLogic(int width, int height, SoundManager soundMan, long seed){
+		this(new World(width, height, MAX_ENTITIES, MAX_BULLETS, MAX_PARTICLES), soundMan, seed);
+	}
+
+	/**
+	 * Create a new game logic handler for the given (empty) game world, without a game screen.
+	 * @param world the game world
+	 * @param soundMan the sound manager
+	 * @param seed the seed for all of the simulation's random numbers
+	 */
+	public GameLogic(World world, SoundManager soundMan, long seed){
+		this.world = world;
+		this.width = world.getWidth();
+		this.height = world.getHeight();
+		this.grid = new SpatialGrid(width, height, GRID_CELL_SIZE);
+		// at most one hit per bullet, plus the ship's
+		this.events = new CollisionEventQueue(world.getBullets().getCapacity() + 1);
+		this.parallel = new ParallelRanges(ForkJoinPool.commonPool(), PARALLEL_THRESHOLD);
+		// a timer per enemy, plus the game's own
+		this.timers = new TimerWheel(GAME_OVER_DELAY, world.getEntities().getCapacity() + 4);
+		this.bulletTargets = new int[world.getBullets().getCapacity()];
+		this.soundMan = soundMan;
+
+		// room for every entity with a sprite
+		int frameCapacity = 0;
+		EntityStore[] stores = world.getArchetypes(Components.SPRITE);
+		for(int i=0; i<stores.length && stores[i] != null; i++){
+			frameCapacity += stores[i].getCapacity();
+		}
+		int particleCapacity = world.getParticles().getCapacity();
+		this.frames = new TripleBuffer<RenderSnapshot>(new RenderSnapshot(frameCapacity, particleCapacity),
+				new RenderSnapshot(frameCapacity, particleCapacity), new RenderSnapshot(frameCapacity, particleCapacity));
 
 		// initialize game status information
 		status = new GameStatus();
-		// initialize the sound manager
-		soundMan = new SoundManager();
-
-		// init some variables
-		bullets = new ArrayList<Bullet>();
+		// initialize random number generator
+		rand = new Random(seed);
 	}
 
 	/**
@@ -62,6 +165,104 @@ public class GameLogic {
 		return gameScreen;
 	}
 
+	/**
+	 * Returns the frame profiler that times the phases of each frame.
+	 * @return the frame profiler
+	 */
+	public FrameProfiler getProfiler() {
+		return profiler;
+	}
+
+	/**
+	 * Returns the number of entities currently in the game world.
+	 * @return the number of entities
+	 */
+	public int getEntityCount() {
+		return world.size();
+	}
+
+	/**
+	 * Returns the game world.
+	 * @return the game world
+	 */
+	public World getWorld() {
+		return world;
+	}
+
+	/**
+	 * Returns the spatial grid used to find collisions.
+	 * @return the collision grid
+	 */
+	public SpatialGrid getCollisionGrid() {
+		return grid;
+	}
+
+	/**
+	 * Set the wave of enemies each new game starts with.
+	 * @param asteroids the number of asteroids
+	 * @param enemyShips the number of enemy ships
+	 * @param bossShips the number of boss ships
+	 */
+	public void setWave(int asteroids, int enemyShips, int bossShips) {
+		if(asteroids + enemyShips + bossShips > world.getEntities().getCapacity()){
+			throw new IllegalArgumentException("The wave doesn't fit in the game world.");
+		}
+		this.waveAsteroids = asteroids;
+		this.waveEnemyShips = enemyShips;
+		this.waveBossShips = bossShips;
+	}
+
+	/**
+	 * Returns the frames the simulation hands to the render thread; see publishFrame().
+	 * @return the frame triple buffer
+	 */
+	public TripleBuffer<RenderSnapshot> getFrames() {
+		return frames;
+	}
+
+	/**
+	 * Copies what the screen needs to draw out of the game world, and publishes it as the newest
+	 * frame. Should be called by the game loop thread after the steps of a frame.
+	 * @param stepNanos the {@link System#nanoTime()} the last step was due at
+	 */
+	public void publishFrame(long stepNanos) {
+		frames.getBack().capture(world, status.getSnapshot(), tick, stepNanos);
+		frames.publish();
+	}
+
+	/**
+	 * Returns the number of simulation steps run so far.
+	 * @return the current tick
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * Returns the rolling checksum of the game world state, updated on every tick. Two runs
+	 * stay in sync for as long as their checksum streams match.
+	 * @return the state checksum
+	 */
+	public long getChecksum() {
+		return checksum;
+	}
+
+	/**
+	 * Returns the width of the game world.
+	 * @return the width of the game world
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the height of the game world.
+	 * @return the height of the game world
+	 */
+	public int getHeight() {
+		return height;
+	}
+
 	/**
 	 * Prepare for a new game.
 	 */
@@ -70,44 +271,49 @@ public class GameLogic {
 		soundMan.playGameTheme();
 
 		// init game variables
-		bullets = new ArrayList<Bullet>();
+		world.clear();
+		ship = null;
 
 		status.setShipsLeft(3);
 		status.setGameOver(false);
 		status.setAsteroidsDestroyed(0);
-		status.setNewAsteroid(false);
-		status.setNewSecondAsteroid(false);
-		status.setNewBossShip(false);
 		status.setPoints(0);
 		status.setLevel(1);
+		status.setNewShip(false);
+		status.publish();
 
-		// init the ship and the asteroid
-		newShip(gameScreen);
-		newEnemyShip(gameScreen);
-		newSecondEnemyShip(gameScreen);
-		newBossShip(gameScreen);
-		newAsteroid(gameScreen);
-		newSecondAsteroid(gameScreen);
+		// forget the last game's timers
+		timers.clear();
+		shipTimer = -1;
 
-
-		// prepare game screen
-		gameScreen.doNewGame();
+		// init the ship and the enemies
+		newShip();
+		world.spawnWave(rand, waveAsteroids, waveEnemyShips, waveBossShips);
 
 		// delay to display "Get Ready" message for 1.5 seconds
-		Timer timer = new Timer(1500, new ActionListener(){
-			public void actionPerformed(ActionEvent e) {
-				status.setGameStarting(false);
-				status.setGameStarted(true);
-			}
-		});
-		timer.setRepeats(false);
-		timer.start();
+		timers.schedule(GET_READY_DELAY, END_GET_READY, 0);
+	}
+
+	/**
+	 * Ask for a new game, from any thread (e.g. when the player presses space on the title
+	 * screen). The game starts on the game loop thread, at its next checkConditions().
+	 */
+	public void requestNewGame(){
+		newGameRequested = true;
 	}
 
 	/**
 	 * Check game or level ending conditions.
 	 */
 	public void checkConditions(){
+		// start a new game if one was asked for, unless one is already going
+		if(newGameRequested){
+			newGameRequested = false;
+			if(!status.isGameStarted() && !status.isGameOver() && !status.isGameStarting()){
+				newGame();
+			}
+		}
+
 		// check game over conditions
 		if(!status.isGameOver() && status.isGameStarted()){
 			if(status.getShipsLeft() == 0){
@@ -122,35 +328,34 @@ public class GameLogic {
 	public void gameOver(){
 		status.setGameStarted(false);
 		status.setGameOver(true);
-		gameScreen.doGameOver();
+
+		// no new ship for a game that is over
+		timers.cancel(shipTimer);
+		shipTimer = -1;
 
 		// delay to display "Game Over" message for 3 seconds
-		Timer timer = new Timer(3000, new ActionListener(){
-			public void actionPerformed(ActionEvent e) {
-				status.setGameOver(false);
-			}
-		});
-		timer.setRepeats(false);
-		timer.start();
+		timers.schedule(GAME_OVER_DELAY, END_GAME_OVER, 0);
 	}
 
 	/**
 	 * Fire a bullet from ship.
 	 */
 	public void fireBullet(){
-		Bullet bullet = new Bullet(ship);
-		bullets.add(bullet);
-		soundMan.playBulletSound();
+		if(Bullet.fire(world.getBullets(), ship) >= 0){
+			soundMan.playBulletSound();
+		}
 	}
 
 	/**
 	 * Move a bullet once fired.
-	 * @param bullet the bullet to move
+	 * @param bullets the bullet store
+	 * @param index the index of the bullet to move
 	 * @return if the bullet should be removed from screen
 	 */
-	public boolean moveBullet(Bullet bullet){
-		if(bullet.getY() - bullet.getSpeed() >= 0){
-			bullet.translate(0, -bullet.getSpeed());
+	public boolean moveBullet(EntityStore bullets, int index){
+		int y = bullets.y[index] + bullets.vy[index];
+		if(y >= 0){
+			bullets.y[index] = y;
 			return false;
 		}
 		else{
@@ -158,112 +363,356 @@ public class GameLogic {
 		}
 	}
 
-	/**2
-	 * Create a new ship (and replace current one).
+	/**
+	 * Advance the game world by one fixed simulation step (movement, collisions and status updates).
 	 */
-	public Ship newShip(GameScreen screen){
-		this.ship = new Ship(screen);
-		return ship;
+	public void updateWorld(){
+		tick++;
+
+		// end message screens, bring back ships and enemies
+		timers.advance(timerListener);
+
+		// explosions burn out even on the "Game Over" screen
+		world.updateEffects();
+
+		// nothing moves while a message screen is showing
+		if(status.isGameStarted() && !status.isGameStarting() && !status.isGameOver()){
+			moveAndCollide();
+		}
+
+		updateChecksum();
+
+		// let the other threads see the tick's results
+		status.publish();
 	}
 
 	/**
-	 * Create a new asteroid.
+	 * Move every object in the game world and check for collisions.
 	 */
-	public Asteroid newAsteroid(GameScreen screen){
-		this.asteroid = new Asteroid(screen);
-		return asteroid;
+	private void moveAndCollide(){
+		long startTime = System.nanoTime();
+
+		// remember where everything was, for drawing in between steps
+		world.savePositions();
+
+		// move the asteroids and enemy ships (in parallel for large waves), then place the ones
+		// that left the screen in order, so they get the same random numbers on any number of threads
+		EntityStore entities = world.getEntities();
+		parallel.run(entities.size(), moveEntitiesTask);
+		for(int i=0, n=entities.size(); i<n; i++){
+			if((entities.flags[i] & EntityStore.FLAG_OUT) != 0){
+				// start over at the top
+				entities.flags[i] &= ~(EntityStore.FLAG_OUT | EntityStore.FLAG_RESPAWNING);
+				entities.setLocation(i, rand.nextInt(width - entities.width[i]), 0);
+			}
+		}
+
+		// move bullets, then remove the ones that left the screen
+		EntityStore bullets = world.getBullets();
+		parallel.run(bullets.size(), moveBulletsTask);
+		for(int i=0; i<bullets.size(); i++){
+			if((bullets.flags[i] & EntityStore.FLAG_OUT) != 0){
+				// the last bullet takes its place, so look at this index again
+				bullets.removeAt(i);
+				i--;
+			}
+		}
+
+		long movementTime = System.nanoTime();
+		profiler.record(FrameProfiler.Phase.MOVEMENT, movementTime - startTime);
+
+		// find the enemies near each bullet and near the ship
+		updateCollisionGrid();
+
+		// check bullet-asteroid and bullet-enemy ship collisions
+		checkBulletCollisions();
+
+		// check ship-asteroid and ship-enemy ship collisions
+		checkShipCollisions();
+
+		// apply everything the collisions did
+		resolveCollisions();
+
+		profiler.record(FrameProfiler.Phase.COLLISION, System.nanoTime() - movementTime);
 	}
 
 	/**
-	 * Creates a new second asteroid
-	 * @param screen the screen in which it will be drawn
-	 * @return the second asteroid
+	 * Applies the timers that are due.
 	 */
-	public Asteroid newSecondAsteroid(GameScreen screen){
-		this.secondAsteroid = new Asteroid(screen);
-		return secondAsteroid;
-	}
+	private final TimerWheel.Listener timerListener = new TimerWheel.Listener(){
+		public void onTimer(int event, int arg) {
+			switch(event){
+			case END_GET_READY:
+				status.setGameStarting(false);
+				status.setGameStarted(true);
+				break;
+			case END_GAME_OVER:
+				status.setGameOver(false);
+				break;
+			case RESPAWN_SHIP:
+				// create a new ship once the explosion is over
+				shipTimer = -1;
+				status.setNewShip(false);
+				newShip();
+				break;
+			case RESPAWN_ENTITY:
+				// the explosion is over; the movement pass puts the entity back at the top. The id
+				// may have been removed (and reused) since, so only respawn it if it still waits
+				EntityStore entities = world.getEntities();
+				if(entities.isAlive(arg)){
+					int index = entities.indexOf(arg);
+					if((entities.flags[index] & EntityStore.FLAG_RESPAWNING) != 0){
+						entities.flags[index] |= EntityStore.FLAG_OUT;
+					}
+				}
+				break;
+			}
+		}
+	};
 
 	/**
-	 * Creates a new enemy ship
-	 * @param screen the screen in which it will be drawn
-	 * @return the enemy ship
+	 * Move a range of asteroids and enemy ships down the screen. The ones that reach the bottom
+	 * of the screen, or whose explosion is over, are only marked to be placed at the top again.
 	 */
-	public EnemyShip newEnemyShip(GameScreen screen){
-		this.enemyShip = new EnemyShip(screen);
-		return enemyShip;
-	}
+	private final ParallelRanges.RangeTask moveEntitiesTask = new ParallelRanges.RangeTask(){
+		public long run(int from, int to) {
+			EntityStore entities = world.getEntities();
+			for(int i=from; i<to; i++){
+				if((entities.flags[i] & EntityStore.FLAG_RESPAWNING) != 0){
+					// waiting for its respawn timer
+					continue;
+				}
+				if(entities.y[i] + entities.vy[i] < height){
+					// move it until it reaches the bottom of the screen
+					entities.translate(i, entities.vx[i], entities.vy[i]);
+				}
+				else{
+					entities.flags[i] |= EntityStore.FLAG_OUT;
+				}
+			}
+			return 0;
+		}
+	};
 
 	/**
-	 * Creates a new second enemy ship
-	 * @param screen the screen in which it will be drawn
-	 * @return the second enemy ship
+	 * Move a range of bullets, marking the ones that leave the screen.
 	 */
-	public EnemyShip newSecondEnemyShip(GameScreen screen){
-		this.secondEnemyShip = new EnemyShip(screen);
-		return secondEnemyShip;
-	}
+	private final ParallelRanges.RangeTask moveBulletsTask = new ParallelRanges.RangeTask(){
+		public long run(int from, int to) {
+			EntityStore bullets = world.getBullets();
+			for(int i=from; i<to; i++){
+				if(moveBullet(bullets, i)){
+					bullets.flags[i] |= EntityStore.FLAG_OUT;
+				}
+			}
+			return 0;
+		}
+	};
+
+	/**
+	 * Look up the first enemy each bullet in a range overlaps.
+	 */
+	private final ParallelRanges.RangeTask findBulletTargetsTask = new ParallelRanges.RangeTask(){
+		public long run(int from, int to) {
+			return grid.findFirst(world.getBullets(), from, to, bulletTargets);
+		}
+	};
 
 	/**
-	 * Creates a new boss ship
-	 * @param screen the screen in which it will be drawn
-	 * @return the sboss ship
+	 * Fold the current game world state into the rolling state checksum.
 	 */
-	public EnemyShip newBossShip(GameScreen screen){
-		this.bossShip = new EnemyShip(screen);
-		return bossShip;
+	private void updateChecksum(){
+		long h = mix(checksum, tick);
+		h = mix(h, status.getPoints());
+		h = mix(h, status.getShipsLeft());
+		h = mix(h, status.getLevel());
+		h = mix(h, status.getAsteroidsDestroyed());
+		h = mix(h, status.getEnemyShipsDestroyed());
+		h = mix(h, status.getBossShipsDestroyed());
+		h = mix(h, (status.isGameStarted() ? 1 : 0)
+				| (status.isGameStarting() ? 2 : 0)
+				| (status.isGameOver() ? 4 : 0)
+				| (status.isNewShip() ? 8 : 0));
+		EntityStore entities = world.getEntities();
+		h = mix(h, entities.size());
+		if(ship != null){
+			h = mix(mix(h, ship.getX()), ship.getY());
+		}
+		for(int i=0; i<entities.size(); i++){
+			h = mix(mix(mix(h, entities.x[i]), entities.y[i]), entities.flags[i]);
+		}
+		EntityStore bullets = world.getBullets();
+		h = mix(h, bullets.size());
+		for(int i=0; i<bullets.size(); i++){
+			h = mix(mix(h, bullets.x[i]), bullets.y[i]);
+		}
+		checksum = h;
+	}
+
+	private static long mix(long h, long value){
+		return (h ^ value) * CHECKSUM_PRIME;
 	}
+
 	/**
-	 * Returns the ship.
-	 * @return the ship
+	 * Rebuild the collision grid with the asteroids and enemy ships that are on screen. Must be
+	 * called after everything moved and before the collision checks.
 	 */
-	public Ship getShip() {
-		return ship;
+	public void updateCollisionGrid(){
+		grid.build(world.getEntities(), -1, EntityStore.FLAG_RESPAWNING | EntityStore.FLAG_HIT);
 	}
 
 	/**
-	 * Returns the enemy ship
-	 * @return the enemy ship
+	 * Check every bullet against the asteroids and enemy ships near it. A bullet hits the first
+	 * enemy it overlaps. Hits are only queued, to be resolved by resolveCollisions().
 	 */
-	public EnemyShip getEnemyShip(){
-		return enemyShip;
+	public void checkBulletCollisions(){
+		EntityStore entities = world.getEntities();
+		EntityStore bullets = world.getBullets();
+		if(!parallel.isParallel(bullets.size())){
+			for(int j=0; j<bullets.size(); j++){
+				int i = grid.findFirst(bullets, j);
+				if(i >= 0 && events.add(CollisionEventQueue.BULLET_HIT, i)){
+					// the enemy can't be hit again this tick
+					entities.flags[i] |= EntityStore.FLAG_HIT;
+					// remove bullet; the last bullet takes its place, so look at this index again
+					bullets.removeAt(j);
+					j--;
+				}
+			}
+			return;
+		}
+
+		// look up every bullet's target in parallel, then take the hits in order; a bullet whose
+		// target was already hit by an earlier bullet looks again, like in the sequential loop
+		grid.addPairsTested(parallel.run(bullets.size(), findBulletTargetsTask));
+		for(int j=0; j<bullets.size(); j++){
+			int i = bulletTargets[j];
+			if(i >= 0 && (entities.flags[i] & EntityStore.FLAG_HIT) != 0){
+				i = grid.findFirst(bullets, j);
+			}
+			if(i >= 0 && events.add(CollisionEventQueue.BULLET_HIT, i)){
+				entities.flags[i] |= EntityStore.FLAG_HIT;
+				// remove bullet, moving the last bullet's target along with it
+				bulletTargets[j] = bulletTargets[bullets.size() - 1];
+				bullets.removeAt(j);
+				j--;
+			}
+		}
 	}
 
 	/**
-	 * Returns the second enemy ship
-	 * @return the second enemy ship
+	 * Check the ship against the asteroids and enemy ships near it. A hit is only queued, to be
+	 * resolved by resolveCollisions().
 	 */
-	public EnemyShip getSecondEnemyShip(){
-		return secondEnemyShip;
+	public void checkShipCollisions(){
+		EntityStore entities = world.getEntities();
+		int i = grid.findFirst(world.getPlayers(), ship.getIndex());
+		if(i >= 0 && events.add(CollisionEventQueue.SHIP_HIT, i)){
+			entities.flags[i] |= EntityStore.FLAG_HIT;
+		}
 	}
 
 	/**
-	 * Returns the asteroid.
-	 * @return the asteroid
+	 * Apply the queued collisions: update the score and lives in a single status update, start
+	 * the explosions and play the sounds.
 	 */
-	public Asteroid getAsteroid() {
-		return asteroid;
+	public void resolveCollisions(){
+		if(events.isEmpty()){
+			return;
+		}
+		EntityStore entities = world.getEntities();
+		int points = 0;
+		int levels = 0;
+		int shipsLost = 0;
+		long asteroids = 0;
+		long enemyShips = 0;
+		long bossShips = 0;
+		long asteroidsDestroyed = status.getAsteroidsDestroyed();
+		while(!events.isEmpty()){
+			int kind = events.peekKind();
+			int index = events.peekIndex();
+			events.remove();
+
+			if(kind == CollisionEventQueue.BULLET_HIT){
+				if(entities.health[index] > 1){
+					// it takes more than one hit
+					entities.health[index]--;
+					entities.flags[index] &= ~EntityStore.FLAG_HIT;
+					continue;
+				}
+				points += entities.score[index];
+				switch(entities.type[index]){
+				case EntityStore.ASTEROID:
+					asteroids++;
+					//increase level each time you destroy 5 asteroids
+					if(++asteroidsDestroyed % 5 == 0){
+						levels++;
+					}
+					break;
+				case EntityStore.ENEMY_SHIP:
+					enemyShips++;
+					break;
+				case EntityStore.BOSS_SHIP:
+					bossShips++;
+					break;
+				}
+			}
+			else{
+				// running into an enemy costs a ship (and counts as an asteroid destroyed)
+				shipsLost++;
+				asteroids++;
+				asteroidsDestroyed++;
+
+				// "remove" ship
+				world.spawnExplosion(EntityStore.SHIP_EXPLOSION, ship.getX(), ship.getY(), NEW_SHIP_DELAY);
+				world.spawnDebris(EntityStore.SHIP, ship.getX() + ship.getWidth()/2, ship.getY() + ship.getHeight()/2);
+				ship.setLocation(width + ship.getWidth(), -ship.getHeight());
+				timers.cancel(shipTimer);
+				shipTimer = timers.schedule(NEW_SHIP_DELAY, RESPAWN_SHIP, 0);
+				soundMan.queueShipExplosionSound();
+			}
+
+			destroyEntity(index);
+			soundMan.queueAsteroidExplosionSound();
+		}
+
+		status.addCollisionResults(points, levels, shipsLost, asteroids, enemyShips, bossShips);
+		soundMan.playQueuedSounds();
 	}
 
 	/**
-	 * Returns a second asteroid
-	 * @return the second asteroid
+	 * "Remove" an asteroid or enemy ship: it explodes, and comes back at the top of the screen
+	 * once the explosion is over.
+	 * @param index the index of the entity
 	 */
-	public Asteroid getSecondAsteroid(){
-		return secondAsteroid;
+	private void destroyEntity(int index){
+		EntityStore entities = world.getEntities();
+		world.spawnExplosion(EntityStore.ASTEROID_EXPLOSION, entities.x[index], entities.y[index],
+				NEW_ASTEROID_DELAY);
+		world.spawnDebris(entities.type[index], entities.x[index] + entities.width[index]/2,
+				entities.y[index] + entities.height[index]/2);
+
+		entities.setLocation(index, -entities.width[index], -entities.height[index]);
+		entities.flags[index] = (entities.flags[index] & ~EntityStore.FLAG_HIT) | EntityStore.FLAG_RESPAWNING;
+		timers.schedule(NEW_ASTEROID_DELAY, RESPAWN_ENTITY, entities.idAt(index));
 	}
 
 	/**
-	 * Returns the list of bullets.
-	 * @return the list of bullets
+	 * Create a new ship (and replace current one).
 	 */
-	public List<Bullet> getBullets() {
-		return bullets;
+	public Ship newShip(){
+		if(ship != null){
+			ship.despawn();
+		}
+		this.ship = new Ship(world.getPlayers(), width, height);
+		return ship;
 	}
 
 	/**
-	 * Returns the boss ship
-	 * @return the boss ship
+	 * Returns the ship.
+	 * @return the ship
 	 */
-	public EnemyShip getBossShip() {return bossShip;}
+	public Ship getShip() {
+		return ship;
+	}
 }
@@ -2,20 +2,26 @@ package rbadia.voidspace.main;
 
 /**
  * Implements the main game loop, i.e. what actions should be taken on each frame update.
+ * <p>
+ * The loop only runs the simulation, at a fixed rate, and publishes a {@link RenderSnapshot}
+ * after each batch of steps. Drawing happens on its own thread (see {@link RenderLoop}), so it
+ * never takes time away from the simulation.
  */
 public class GameLoop implements Runnable{
-	private GameScreen gameScreen;
+	// length of one simulation step, for a resulting update rate of 60 steps per second
+	static final long STEP_NANOS = 1000000000L / GameLogic.TICKS_PER_SECOND;
+	// maximum number of steps to run in a single frame when catching up after a hitch
+	private static final int MAX_STEPS_PER_FRAME = 5;
+
 	private GameLogic gameLogic;
 	private InputHandler inputHandler;
 
 	/**
 	 * Creates a new game loop.
-	 * @param gameScreen the game screen
 	 * @param gameLogic the game logic handler
 	 * @param inputHandler the user input handler
 	 */
-	public GameLoop(GameScreen gameScreen, GameLogic gameLogic, InputHandler inputHandler){
-		this.gameScreen = gameScreen;
+	public GameLoop(GameLogic gameLogic, InputHandler inputHandler){
 		this.gameLogic = gameLogic;
 		this.inputHandler = inputHandler;
 	}
@@ -24,27 +30,58 @@ public class GameLoop implements Runnable{
 	 * Implements the run interface method. Should be called by the running thread.
 	 */
 	public void run() {
+		FrameProfiler profiler = gameLogic.getProfiler();
+		long previousTime = System.nanoTime();
+		long accumulator = 0;
 		while(true){
 			// main game loop
-			try{
-				// sleep/wait for 1/60th of a second,
-				// for a resulting refresh rate of 60 frames per second (fps) 
-				Thread.sleep(1000/60);
+			long frameStart = System.nanoTime();
+			accumulator += frameStart - previousTime;
+			previousTime = frameStart;
+
+			// run as many fixed simulation steps as the elapsed time asks for
+			int steps = 0;
+			while(accumulator >= STEP_NANOS && steps < MAX_STEPS_PER_FRAME){
+				// check game or level ending conditions
+				long phaseStart = System.nanoTime();
+				gameLogic.checkConditions();
+				long phaseEnd = System.nanoTime();
+				profiler.record(FrameProfiler.Phase.CHECK_CONDITIONS, phaseEnd - phaseStart);
+
+				// update the game world (times its own movement and collision phases)
+				gameLogic.updateWorld();
+
+				// handle input
+				phaseStart = System.nanoTime();
+				inputHandler.handleInput();
+				profiler.record(FrameProfiler.Phase.HANDLE_INPUT, System.nanoTime() - phaseStart);
+
+				accumulator -= STEP_NANOS;
+				steps++;
+			}
+			if(accumulator >= STEP_NANOS){
+				// too far behind to catch up, drop the missed steps instead of spiralling
+				accumulator %= STEP_NANOS;
+			}
+
+			// hand the results to the render thread, stamped with when the last step was due
+			if(steps > 0){
+				gameLogic.publishFrame(frameStart - accumulator);
+			}
+
+			// sleep/wait until the next simulation step is due
+			long sleepNanos = STEP_NANOS - accumulator - (System.nanoTime() - frameStart);
+			if(sleepNanos > 1000000){
+				try{
+					Thread.sleep(sleepNanos / 1000000, (int) (sleepNanos % 1000000));
+				}
+				catch(InterruptedException e){
+					e.printStackTrace();
+				}
 			}
-			catch(Exception e){
-				e.printStackTrace();
+			else{
+				Thread.yield();
 			}
-			// check game or level ending conditions
-			gameLogic.checkConditions();
-			
-			// update the game graphics
-			gameScreen.updateScreen();
-			
-			// handle input
-			inputHandler.handleInput(gameScreen);
-			
-			// repaint the graphics unto screen
-			gameScreen.repaint();
 		}
 	}
 
@@ -1,4 +1,6 @@
 package rbadia.voidspace.main;
+import java.awt.BorderLayout;
+import java.awt.Canvas;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
@@ -6,55 +8,113 @@ import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Toolkit;
+import java.awt.Transparency;
+import java.awt.image.BufferStrategy;
 import java.awt.image.BufferedImage;
-import java.util.List;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
+import rbadia.voidspace.graphics.DirtyRegions;
 import rbadia.voidspace.graphics.GraphicsManager;
+import rbadia.voidspace.graphics.SpriteAtlas;
+import rbadia.voidspace.graphics.SpriteRasterizer;
+import rbadia.voidspace.graphics.Starfield;
+import rbadia.voidspace.graphics.TextRenderer;
 import rbadia.voidspace.model.Asteroid;
-import rbadia.voidspace.model.Bullet;
-import rbadia.voidspace.model.EnemyShip;
-import rbadia.voidspace.model.Ship;
-import rbadia.voidspace.sounds.SoundManager;
 
 /**
- * Main game screen. Handles all game graphics updates and some of the game logic.
+ * Main game screen. Draws the game world and handles all game graphics updates.
  */
 public class GameScreen extends JPanel {
 	private static final long serialVersionUID = 1L;
 
+	// the size the game is drawn at, before it is scaled to the size of the panel
+	// (-Dvoidspace.width=320 -Dvoidspace.height=256)
+	private static final int DEFAULT_WIDTH = 500;
+	private static final int DEFAULT_HEIGHT = 400;
+	// room for enemies to spawn across the top (their x is picked below width - enemy width), and
+	// for the ship above the bottom
+	private static final int MIN_WIDTH = Asteroid.WIDTH * 2;
+	private static final int MIN_HEIGHT = Asteroid.HEIGHT * 2;
+
+	// how many times the game size the panel starts out at (-Dvoidspace.windowScale=2)
+	private static final int WINDOW_SCALE = Math.max(Integer.getInteger("voidspace.windowScale", 1), 1);
+
+	// scale frames by whole numbers with nearest neighbour sampling, so pixels stay sharp and
+	// the same size, leaving black borders around them (-Dvoidspace.integerScaling=false to fill
+	// the panel with smoothly scaled frames instead)
+	private static final boolean INTEGER_SCALING = Boolean.parseBoolean(System.getProperty("voidspace.integerScaling", "true"));
+
+	private final int logicalWidth;
+	private final int logicalHeight;
+
 	private BufferedImage backBuffer;
 	private Graphics2D g2d;
+	// held while the render thread draws to the back buffer, and while the EDT copies it to the
+	// panel (when frames are shown through Swing repaints), so a repaint never shows a half drawn
+	// frame
+	private final Object backBufferLock = new Object();
 
-	private static final int NEW_SHIP_DELAY = 500;
-	private static final int NEW_ASTEROID_DELAY = 500;
-	private static final int NEW_BOSS_SHIP_DELAY = 500;
+	// number of buffers requested for active rendering
+	private static final int NUM_BUFFERS = 2;
 
-	private long lastShipTime;
-	private long lastAsteroidTime;
-	private long lastBossShipTime;
-
-	private Rectangle asteroidExplosion;
-	private Rectangle shipExplosion;
-	private Rectangle bossShipExplosion;
+	// set before the screen is shown; the render thread drops it (and goes on with Swing
+	// repaints) if the buffer strategy can't be created
+	private volatile Canvas canvas;
+	private BufferStrategy bufferStrategy;
 
 	private JLabel shipsValueLabel;
 	private JLabel asteroidsDestroyedValueLabel;
 	private JLabel pointsValueLabel;
 	private JLabel levelValueLabel;
 	private JLabel shipsDestroyedValueLabel;
-
-	private Random rand;
+	private HudUpdater hud;
 
 	private Font originalFont;
-	private Font bigFont;
-	private Font biggestFont;
+	private Font titleFont;
+	private Font gameOverFont;
+	private Font readyFont;
+	// the size the title and "Game Over" messages have grown to
+	private float zoomSize;
+	private TextRenderer textRenderer = new TextRenderer(16);
+	private Font debugFont;
+
+	private static final Color DEBUG_BACKGROUND = new Color(0, 0, 0, 160);
+
+	// how many times the default number of background stars to draw (-Dvoidspace.starDensity=4)
+	private static final int STAR_DENSITY = Integer.getInteger("voidspace.starDensity", 1);
+	private static final long STAR_SEED = 42;
+
+	// the most separate regions to redraw in a frame before they are combined
+	private static final int MAX_DIRTY_REGIONS = 64;
+
+	private Starfield starfield;
+
+	// drawing sprites straight into the back buffer's pixels, see setSoftwareSprites(boolean)
+	private boolean softwareSprites;
+	private SpriteRasterizer rasterizer;
+
+	// with this many sprites or more, software sprites are drawn in bands of rows on several
+	// threads (-Dvoidspace.parallelSprites=500)
+	private static final int PARALLEL_SPRITES = Integer.getInteger("voidspace.parallelSprites", 1000);
+	private static final int BAND_HEIGHT = 16;
+	private final ParallelRanges bands = new ParallelRanges(ForkJoinPool.commonPool(), 2);
+
+	// dirty rectangle rendering: the sprite bounds of the last frame, the regions redrawn this
+	// frame, and if the last frame can be redrawn in parts (or was drawn whole)
+	private boolean dirtyRendering;
+	private BufferedImage background;
+	private DirtyRegions spriteBounds;
+	private DirtyRegions dirtyRegions;
+	private boolean lastFrameClean;
+	private boolean fullFrame = true;
 
-	private GameStatus status;
-	private SoundManager soundMan;
 	private GraphicsManager graphicsMan;
 	private GameLogic gameLogic;
 
@@ -63,18 +123,37 @@ public class GameScreen extends JPanel {
 	 * 
 	 */
 	public GameScreen() {
-		super();
-		// initialize random number generator
-		rand = new Random();
+		this(Integer.getInteger("voidspace.width", DEFAULT_WIDTH), Integer.getInteger("voidspace.height", DEFAULT_HEIGHT));
+	}
 
+	/**
+	 * Creates a game screen that draws the game at the given size, and scales each frame to the
+	 * size of the panel when showing it.
+	 * @param logicalWidth the width the game is drawn at, at least 64
+	 * @param logicalHeight the height the game is drawn at, at least 64
+	 */
+	public GameScreen(int logicalWidth, int logicalHeight) {
+		super();
+		if(logicalWidth < MIN_WIDTH || logicalHeight < MIN_HEIGHT){
+			throw new IllegalArgumentException("Invalid game size " + logicalWidth + "x" + logicalHeight
+					+ ", the smallest is " + MIN_WIDTH + "x" + MIN_HEIGHT);
+		}
+		this.logicalWidth = logicalWidth;
+		this.logicalHeight = logicalHeight;
 		initialize();
 
 		// init graphics manager
 		graphicsMan = new GraphicsManager();
 
-		// init back buffer image
-		backBuffer = new BufferedImage(500, 400, BufferedImage.TYPE_INT_RGB);
+		// init back buffer image, in the screen's pixel layout so sprites and frames copy straight over
+		backBuffer = GraphicsManager.createCompatibleImage(logicalWidth, logicalHeight, Transparency.OPAQUE);
 		g2d = backBuffer.createGraphics();
+
+		// the background stars
+		starfield = new Starfield(backBuffer.getWidth(), backBuffer.getHeight(), STAR_DENSITY, STAR_SEED);
+
+		spriteBounds = new DirtyRegions(backBuffer.getWidth(), backBuffer.getHeight(), MAX_DIRTY_REGIONS);
+		dirtyRegions = new DirtyRegions(backBuffer.getWidth(), backBuffer.getHeight(), MAX_DIRTY_REGIONS);
 	}
 
 	/**
@@ -82,8 +161,8 @@ public class GameScreen extends JPanel {
 	 */
 	private void initialize() {
 		// set panel properties
-		this.setSize(new Dimension(500, 400));
-		this.setPreferredSize(new Dimension(500, 400));
+		this.setSize(new Dimension(logicalWidth * WINDOW_SCALE, logicalHeight * WINDOW_SCALE));
+		this.setPreferredSize(new Dimension(logicalWidth * WINDOW_SCALE, logicalHeight * WINDOW_SCALE));
 		this.setBackground(Color.BLACK);
 	}
 
@@ -93,451 +172,521 @@ public class GameScreen extends JPanel {
 	@Override
 	protected void paintComponent(Graphics g) {
 		super.paintComponent(g);
-		// draw current backbuffer to the actual game screen
-		g.drawImage(backBuffer, 0, 0, this);
+		// draw current backbuffer to the actual game screen, once the render thread is done with it
+		synchronized(backBufferLock){
+			drawScaled((Graphics2D) g, this.getWidth(), this.getHeight(), false);
+		}
 	}
 
 	/**
-	 * Update the game screen's backbuffer image.
+	 * Returns the width the game is drawn at, before it is scaled to the panel.
+	 * @return the game width
 	 */
-	public void updateScreen(){
-		Ship ship = gameLogic.getShip();
-		EnemyShip enemyShip = gameLogic.getEnemyShip();
-		EnemyShip secondEnemyShip = gameLogic.getSecondEnemyShip();
-		EnemyShip bossShip = gameLogic.getBossShip();
-		Asteroid asteroid = gameLogic.getAsteroid();
-		Asteroid secondAsteroid = gameLogic.getSecondAsteroid();
-		List<Bullet> bullets = gameLogic.getBullets();
-
-		// set orignal font - for later use
-		if(this.originalFont == null){
-			this.originalFont = g2d.getFont();
-			this.bigFont = originalFont;
-		}
+	public int getLogicalWidth() {
+		return logicalWidth;
+	}
 
-		// erase screen
-		g2d.setPaint(Color.BLACK);
-		g2d.fillRect(0, 0, getSize().width, getSize().height);
+	/**
+	 * Returns the height the game is drawn at, before it is scaled to the panel.
+	 * @return the game height
+	 */
+	public int getLogicalHeight() {
+		return logicalHeight;
+	}
 
-		// draw 50 random stars
-		drawStars(50);
+	/**
+	 * Returns the scale the back buffer is shown at in an area of the given size: the largest that
+	 * fits, rounded down to a whole number when integer scaling is on (unless the area is smaller
+	 * than the game, then frames are shrunk to fit).
+	 * @param width the width of the area
+	 * @param height the height of the area
+	 * @return the scale
+	 */
+	private float getPresentScale(int width, int height) {
+		float scale = Math.min((float) width / logicalWidth, (float) height / logicalHeight);
+		if(INTEGER_SCALING && scale >= 1){
+			scale = (float) Math.floor(scale);
+		}
+		return scale;
+	}
 
-		// if the game is starting, draw "Get Ready" message
-		if(status.isGameStarting()){
-			drawGetReady();
+	/**
+	 * Draws the back buffer scaled and centered in an area, in one image copy. Whole number
+	 * scales use nearest neighbour sampling; others are filtered.
+	 * @param g the graphics to draw to
+	 * @param width the width of the area
+	 * @param height the height of the area
+	 * @param fillBorders if the borders around the frame should be filled black
+	 */
+	private void drawScaled(Graphics2D g, int width, int height, boolean fillBorders) {
+		float scale = getPresentScale(width, height);
+		int w = Math.round(logicalWidth * scale);
+		int h = Math.round(logicalHeight * scale);
+		if(w <= 0 || h <= 0){
+			return;
+		}
+		int x = (width - w)/2;
+		int y = (height - h)/2;
+		if(fillBorders && (w < width || h < height)){
+			g.setColor(Color.BLACK);
+			g.fillRect(0, 0, width, y);
+			g.fillRect(0, y + h, width, height - y - h);
+			g.fillRect(0, y, x, h);
+			g.fillRect(x + w, y, width - x - w, h);
+		}
+		if(scale == 1f){
+			g.drawImage(backBuffer, x, y, null);
 			return;
 		}
+		g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, scale == (int) scale
+				? RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR : RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		g.drawImage(backBuffer, x, y, w, h, null);
+	}
 
-		// if the game is over, draw the "Game Over" message
-		if(status.isGameOver()){
-			// draw the message
-			drawGameOver();
+	/**
+	 * Describes how frames are scaled to the panel, for the frame timing overlay.
+	 * @return the report line
+	 */
+	private String describePresent() {
+		Canvas shown = canvas;
+		int width = shown != null ? shown.getWidth() : this.getWidth();
+		int height = shown != null ? shown.getHeight() : this.getHeight();
+		float scale = getPresentScale(width, height);
+		return String.format("%-18s %dx%d to %dx%d, x%.2f %s", "present", logicalWidth, logicalHeight,
+				Math.round(logicalWidth * scale), Math.round(logicalHeight * scale), scale,
+				scale == (int) scale ? "nearest" : "bilinear");
+	}
+
+	/**
+	 * Switch active rendering on or off. When on, the render loop shows each frame itself through
+	 * a canvas buffer strategy, instead of asking Swing to repaint the panel.
+	 * Should be called before the screen is made visible.
+	 * @param activeRendering if active rendering should be used
+	 */
+	public void setActiveRendering(boolean activeRendering) {
+		if(activeRendering && canvas == null){
+			canvas = new Canvas();
+			canvas.setIgnoreRepaint(true);
+			// let key events reach the main frame
+			canvas.setFocusable(false);
+			canvas.setBackground(Color.BLACK);
+			this.setLayout(new BorderLayout());
+			this.add(canvas, BorderLayout.CENTER);
+			this.setIgnoreRepaint(true);
+		}
+		else if(!activeRendering && canvas != null){
+			disableActiveRendering();
+		}
+	}
 
-			long currentTime = System.currentTimeMillis();
-			// draw the explosions until their time passes
-			if((currentTime - lastAsteroidTime) < NEW_ASTEROID_DELAY){
-				graphicsMan.drawAsteroidExplosion(asteroidExplosion, g2d, this);
+	/**
+	 * Switch dirty rectangle rendering on or off. When on, frames during play only redraw and
+	 * repaint the parts of the screen that sprites moved out of or into, for slow machines where
+	 * filling the whole screen every frame is too much. The stars stand still, and frames are
+	 * shown through Swing repaints, so active rendering is switched off.
+	 * @param dirtyRendering if dirty rectangle rendering should be used
+	 */
+	public void setDirtyRendering(boolean dirtyRendering) {
+		this.dirtyRendering = dirtyRendering;
+		this.lastFrameClean = false;
+		if(dirtyRendering){
+			setActiveRendering(false);
+			if(background == null){
+				// a still frame of the stars to erase the sprites with
+				background = GraphicsManager.createCompatibleImage(backBuffer.getWidth(), backBuffer.getHeight(), Transparency.OPAQUE);
+				Graphics2D g = background.createGraphics();
+				starfield.draw(g, 0);
+				g.dispose();
 			}
-			if((currentTime - lastShipTime) < NEW_SHIP_DELAY){
-				graphicsMan.drawShipExplosion(shipExplosion, g2d, this);
+		}
+	}
+
+	/**
+	 * Switch software sprites on or off. When on, sprites are drawn by a {@link SpriteRasterizer}
+	 * straight into the back buffer's pixels instead of through Graphics2D, in bands on several
+	 * threads when there are many. Every sprite then costs the same, which pays off with
+	 * thousands of sprites; but the back buffer can no longer be cached in video memory.
+	 * @param softwareSprites if sprites should be drawn in software
+	 */
+	public void setSoftwareSprites(boolean softwareSprites) {
+		this.softwareSprites = softwareSprites;
+		if(softwareSprites && !SpriteRasterizer.isSupported(backBuffer)){
+			// the rasterizer needs plain int pixels
+			g2d.dispose();
+			backBuffer = new BufferedImage(logicalWidth, logicalHeight, BufferedImage.TYPE_INT_RGB);
+			g2d = backBuffer.createGraphics();
+		}
+		rasterizer = null;
+	}
+
+	/**
+	 * Indicates if frames are shown through active rendering.
+	 * @return if active rendering is being used
+	 */
+	public boolean isActiveRendering() {
+		return canvas != null;
+	}
+
+	/**
+	 * Show the current backbuffer image on the actual game screen. Blits it through the buffer
+	 * strategy when active rendering is on, otherwise schedules a regular Swing repaint.
+	 */
+	public void present() {
+		Canvas shown = canvas;
+		if(shown == null){
+			if(fullFrame){
+				repaint();
 			}
-			if((currentTime- lastBossShipTime) < NEW_BOSS_SHIP_DELAY){
-				graphicsMan.drawShipExplosion(bossShipExplosion, g2d, this);
+			else{
+				// the regions are in game pixels; repaint where they end up on the panel
+				float scale = getPresentScale(this.getWidth(), this.getHeight());
+				int x = (this.getWidth() - Math.round(logicalWidth * scale))/2;
+				int y = (this.getHeight() - Math.round(logicalHeight * scale))/2;
+				for(int i=0; i<dirtyRegions.size(); i++){
+					int left = (int) Math.floor(dirtyRegions.getX(i) * scale);
+					int top = (int) Math.floor(dirtyRegions.getY(i) * scale);
+					int right = (int) Math.ceil((dirtyRegions.getX(i) + dirtyRegions.getWidth(i)) * scale);
+					int bottom = (int) Math.ceil((dirtyRegions.getY(i) + dirtyRegions.getHeight(i)) * scale);
+					// a pixel more around, for the filtering of fractional scales
+					repaint(new Rectangle(x + left - 1, y + top - 1, right - left + 2, bottom - top + 2));
+				}
 			}
 			return;
 		}
+		if(bufferStrategy == null){
+			// the buffer strategy can only be created once the canvas is on screen
+			if(!shown.isDisplayable()){
+				return;
+			}
+			try{
+				shown.createBufferStrategy(NUM_BUFFERS);
+				bufferStrategy = shown.getBufferStrategy();
+			}
+			catch(Exception e){
+				activeRenderingFailed(shown, e);
+				return;
+			}
+		}
 
-		// the game has not started yet
-		if(!status.isGameStarted()){
-			// draw game title screen
-			initialMessage();
+		try{
+			// the loops take care of buffers lost or restored while drawing
+			do{
+				do{
+					Graphics g = bufferStrategy.getDrawGraphics();
+					drawScaled((Graphics2D) g, shown.getWidth(), shown.getHeight(), true);
+					g.dispose();
+				} while(bufferStrategy.contentsRestored());
+				bufferStrategy.show();
+			} while(bufferStrategy.contentsLost());
+		}
+		catch(Exception e){
+			activeRenderingFailed(shown, e);
 			return;
 		}
 
-		//draw the asteroids
-		this.createAsteroid(asteroid, 1, "FIRST");
-		this.createAsteroid(secondAsteroid, 1, "SECOND");	
-		
-		
-		//draw enemy ship
-		this.createEnemyShip(enemyShip, "LEFT", 2);
-		this.createEnemyShip(secondEnemyShip, "RIGHT", 1);
+		// make sure the frame reaches the display right away
+		Toolkit.getDefaultToolkit().sync();
+	}
+
+	/**
+	 * Fall back to Swing repaints from the render thread, when the canvas can't show frames. The
+	 * next frames take the repaint path right away; the canvas is taken out of the panel later,
+	 * on the EDT.
+	 */
+	private void activeRenderingFailed(final Canvas failed, Exception e) {
+		e.printStackTrace();
+		if(bufferStrategy != null){
+			bufferStrategy.dispose();
+			bufferStrategy = null;
+		}
+		canvas = null;
+		SwingUtilities.invokeLater(new Runnable(){
+			public void run() {
+				removeCanvas(failed);
+			}
+		});
+		repaint();
+	}
+
+	/**
+	 * Fall back to showing frames through regular Swing repaints.
+	 */
+	private void disableActiveRendering() {
+		if(bufferStrategy != null){
+			bufferStrategy.dispose();
+			bufferStrategy = null;
+		}
+		Canvas removed = canvas;
+		canvas = null;
+		removeCanvas(removed);
+	}
 
-		//draw boss
-		this.createBossShip(bossShip, "Middle", 1 );
+	/**
+	 * Takes the active rendering canvas out of the panel. Changes the component tree, so it must
+	 * run on the EDT once the screen is visible.
+	 */
+	private void removeCanvas(Canvas removed) {
+		this.remove(removed);
+		this.setIgnoreRepaint(false);
+		this.revalidate();
+	}
 
-		// draw bullets
-		for(int i=0; i<bullets.size(); i++){
-			Bullet bullet = bullets.get(i);
-			graphicsMan.drawBullet(bullet, g2d, this);
+	/**
+	 * Draw a frame published by the simulation to the backbuffer image. Should be called by the
+	 * render thread.
+	 * @param frame the frame
+	 * @param alpha how far the game is between the previous simulation step (0) and the frame's (1)
+	 */
+	public void drawScreen(RenderSnapshot frame, float alpha){
+		FrameProfiler profiler = gameLogic.getProfiler();
+		GameStatus.Snapshot status = frame.getStatus();
+		boolean playing = status.isGameStarted() && !status.isGameStarting() && !status.isGameOver();
+
+		// the labels keep the last game's results on the title screen
+		if(status.isGameStarted() || status.isGameStarting() || status.isGameOver()){
+			getHud().update(status);
+		}
 
-			boolean remove = gameLogic.moveBullet(bullet);
-			if(remove){
-				bullets.remove(i);
-				i--;
+		// only the sprites move while playing, so only redraw around them if we can
+		if(dirtyRendering && playing && lastFrameClean && !profiler.isOverlayVisible()){
+			if(drawDirtyRegions(frame, alpha)){
+				return;
 			}
 		}
 
-		// check bullet-asteroid collisions
-		this.bulletAsteroidCollision(bullets, asteroid);
-		this.bulletAsteroidCollision(bullets, secondAsteroid);		
-		
-		
-		// check bullet-enemyShip collisions
-		this.bulletEnemyShipCollision(bullets, enemyShip);
-		this.bulletEnemyShipCollision(bullets, secondEnemyShip);
-		this.bulletBossShipCollision(bullets, bossShip);
+		fullFrame = true;
+		if(dirtyRendering){
+			// the next frame has to erase the message screens and the overlay
+			lastFrameClean = playing && !profiler.isOverlayVisible();
+			spriteBounds.clear();
+			if(playing){
+				addSpriteBounds(frame, alpha, spriteBounds);
+			}
+		}
 
-		// draw ship
-		if(!status.isNewShip()){
-			// draw it in its current location
-			graphicsMan.drawShip(ship, g2d, this);
+		// frame timing, then how the images are stored (the timing counters are read off the
+		// simulation thread, so they may be a step apart)
+		String[] lines = null;
+		if(profiler.isOverlayVisible()){
+			String[] timing = profiler.getOverlayLines(gameLogic);
+			String[] images = graphicsMan.getImageReport();
+			lines = Arrays.copyOf(timing, timing.length + images.length + 3);
+			System.arraycopy(images, 0, lines, timing.length, images.length);
+			lines[lines.length - 3] = GraphicsManager.describeImage("back buffer", backBuffer);
+			lines[lines.length - 2] = describePresent();
+			lines[lines.length - 1] = textRenderer.describeCache();
 		}
-		else{
-			// draw a new one
-			long currentTime = System.currentTimeMillis();
-			if((currentTime - lastShipTime) > NEW_SHIP_DELAY){
-				lastShipTime = currentTime;
-				status.setNewShip(false);
-				ship = gameLogic.newShip(this);
-			}
-			else{
-				// draw explosion
-				graphicsMan.drawShipExplosion(shipExplosion, g2d, this);
+
+		synchronized(backBufferLock){
+			drawGame(frame, alpha);
+			// draw the frame timing overlay on top of everything else
+			if(lines != null){
+				drawDebugOverlay(lines);
 			}
 		}
+	}
 
-		// check ship-asteroid collisions
-		this.shipAsteroidCollision(ship, asteroid);
-		this.shipAsteroidCollision(ship, secondAsteroid);
-		
-		//check ship-enemy ship collisions
-		this.shipEnemyShipCollision(ship, enemyShip);
-		this.shipEnemyShipCollision(ship, secondEnemyShip);
-		this.shipBossShipCollision(ship, bossShip);
+	/**
+	 * Draw the game world, or the message screen that is showing.
+	 * @param frame the frame
+	 * @param alpha how far the game is between the previous simulation step (0) and the frame's (1)
+	 */
+	private void drawGame(RenderSnapshot frame, float alpha){
+		GameStatus.Snapshot status = frame.getStatus();
 
-		
-		
-		//update ships destroyed label
-		shipsDestroyedValueLabel.setText(Long.toString(status.getEnemyShipsDestroyed()));
+		// set orignal font - for later use
+		if(this.originalFont == null){
+			this.originalFont = g2d.getFont();
+			this.zoomSize = originalFont.getSize2D();
+		}
 
-		// update asteroids destroyed label
-		asteroidsDestroyedValueLabel.setText(Long.toString(status.getAsteroidsDestroyed()));
+		// erase the screen with the stars
+		if(dirtyRendering){
+			g2d.drawImage(background, 0, 0, null);
+		}
+		else{
+			starfield.draw(g2d, frame.getTick() + alpha);
+		}
 
-		// update ships left label
-		shipsValueLabel.setText(Integer.toString(status.getShipsLeft()));
+		// if the game is starting, draw "Get Ready" message
+		if(status.isGameStarting()){
+			drawGetReady();
+			// the next "Game Over" message grows from small again
+			zoomSize = originalFont.getSize2D();
+			return;
+		}
 
-		//update points earned
-		pointsValueLabel.setText(Integer.toString(status.getPoints()));
+		// if the game is over, draw the "Game Over" message
+		if(status.isGameOver()){
+			// draw the message
+			drawGameOver();
 
-		//update the current level
-		levelValueLabel.setText(Integer.toString(status.getLevel()));
+			// draw the explosions and their debris until their time passes
+			drawSprites(frame, frame.getEffectsStart(), 1f);
+			drawParticles(frame, alpha);
+			return;
+		}
 
-	}
-	
-	public void createAsteroid(Asteroid newAsteroid, int speedMultiplier, String position){
-		// draw asteroid
-		if(!status.isNewAsteroid()){
-			// draw the asteroid until it reaches the bottom of the screen
-			if(newAsteroid.getY() + newAsteroid.getSpeed() < this.getHeight()){
-				newAsteroid.translate(0, newAsteroid.getSpeed() * speedMultiplier);
-				graphicsMan.drawAsteroid(newAsteroid, g2d, this);
-			}			
-			else{
-				newAsteroid.setLocation(rand.nextInt(getWidth() - newAsteroid.width), 0);
-			}
-		} else {
-			long currentTime = System.currentTimeMillis();
-			if((currentTime - lastAsteroidTime) > NEW_ASTEROID_DELAY){
-				// draw a new asteroid
-				lastAsteroidTime = currentTime;
-				
-				if(position.equals("FIRST")){
-					status.setNewAsteroid(false);
-				}
-				if(position.equals("SECOND")){
-					status.setNewSecondAsteroid(false);
-				}
-				newAsteroid.setLocation(rand.nextInt(getWidth() - newAsteroid.width), 0);
-			}
-			else{
-				// draw explosion
-				graphicsMan.drawAsteroidExplosion(asteroidExplosion, g2d, this);
-			}
+		// the game has not started yet
+		if(!status.isGameStarted()){
+			// draw game title screen
+			initialMessage();
+			return;
 		}
+
+		drawSprites(frame, 0, alpha);
+		drawParticles(frame, alpha);
 	}
-	
-	public void createEnemyShip(EnemyShip newEnemyShip, String direction, int speedMultiplier){
-		
-		if(!status.isNewEnemyShip()){			
-			// draw the enemy ship until it reaches the bottom of the screen
-			if(newEnemyShip.getY() + newEnemyShip.getSpeed() < this.getHeight()){
-				if(direction.equals("LEFT")){
-					
-					//the enemy ships go to the left direction
-					newEnemyShip.translate(-newEnemyShip.getSpeed(), newEnemyShip.getSpeed() * speedMultiplier);
-					graphicsMan.drawEnemyShip(newEnemyShip, g2d, this);
+
+	/**
+	 * Redraw only the parts of the screen the sprites moved out of or into. Gives up, leaving the
+	 * back buffer alone, when that would be a large part of the screen anyway.
+	 * @param frame the frame
+	 * @param alpha how far the game is between the previous simulation step (0) and the frame's (1)
+	 * @return if the frame was drawn
+	 */
+	private boolean drawDirtyRegions(RenderSnapshot frame, float alpha){
+		// where the sprites were last frame, and where they are now
+		dirtyRegions.clear();
+		dirtyRegions.addAll(spriteBounds);
+		spriteBounds.clear();
+		addSpriteBounds(frame, alpha, spriteBounds);
+		dirtyRegions.addAll(spriteBounds);
+		dirtyRegions.merge();
+		if(dirtyRegions.getArea() > backBuffer.getWidth() * backBuffer.getHeight() / 2){
+			return false;
+		}
+
+		if(softwareSprites){
+			listSprites(frame, 0, alpha);
+		}
+		// every region is erased before its sprites are drawn again, so a repaint of the last
+		// frame's regions must not run until all of them are done
+		synchronized(backBufferLock){
+			for(int i=0; i<dirtyRegions.size(); i++){
+				int x = dirtyRegions.getX(i);
+				int y = dirtyRegions.getY(i);
+				int w = dirtyRegions.getWidth(i);
+				int h = dirtyRegions.getHeight(i);
+				g2d.setClip(x, y, w, h);
+				g2d.drawImage(background, 0, 0, null);
+				if(softwareSprites){
+					rasterizer.draw(x, y, x + w, y + h);
 				}
-				else if(direction.equals("RIGHT")){
-					//the enemy ships go to the right direction
-					newEnemyShip.translate(newEnemyShip.getSpeed(), newEnemyShip.getSpeed() * speedMultiplier);
-					graphicsMan.drawEnemyShip(newEnemyShip, g2d, this);
+				else{
+					drawSprites(frame, 0, alpha);
 				}
-			}			
-			else{
-				newEnemyShip.setLocation(rand.nextInt(getWidth() - newEnemyShip.width), 0);
-			}
-		} else {
-			long currentTime = System.currentTimeMillis();
-			if((currentTime - lastAsteroidTime) > NEW_ASTEROID_DELAY){
-				// draw a new enemy ship
-				lastAsteroidTime = currentTime;
-				status.setNewEnemyShip(false);
-				newEnemyShip.setLocation(rand.nextInt(getWidth() - newEnemyShip.width), 0);
-			}
-			else{
-				// draw explosion
-				graphicsMan.drawAsteroidExplosion(asteroidExplosion, g2d, this);
+				drawParticles(frame, alpha);
 			}
+			g2d.setClip(null);
 		}
+		fullFrame = false;
+		return true;
 	}
 
-	public void createBossShip(EnemyShip newBossShip, String direction, int speedMultiplier){
-
-		//if(status.getLevel() % 5 == 0 ){
-			if(!status.isNewBossShip()){
-				// draw it in its current location
-					if(newBossShip.getY() + newBossShip.getSpeed() < this.getHeight()){
-						if(direction.equals("Middle")){
-
-							//the enemy ships go to the left direction
-							newBossShip.translate(-newBossShip.getSpeed(), newBossShip.getSpeed() * speedMultiplier);
-							graphicsMan.drawBossShip(newBossShip, g2d, this);
-						} else{
-							newBossShip.setLocation(rand.nextInt(getWidth() - newBossShip.width), 0);
-						}
-					} else {
-						long currentTime = System.currentTimeMillis();
-						if((currentTime - lastAsteroidTime) > NEW_ASTEROID_DELAY){
-							// draw a new enemy ship
-							lastAsteroidTime = currentTime;
-							status.setNewBossShip(false);
-							newBossShip.setLocation(rand.nextInt(getWidth() - newBossShip.width), 0);
-						} else{
-							// draw explosion
-							graphicsMan.drawAsteroidExplosion(asteroidExplosion, g2d, this);
-						}
-					}
-				}
-
-		else{
-			long currentTime = System.currentTimeMillis();
-			if((currentTime - lastAsteroidTime) > NEW_ASTEROID_DELAY){
-				// draw a new enemy ship
-				lastAsteroidTime = currentTime;
-				status.setNewEnemyShip(false);
-				newBossShip.setLocation(rand.nextInt(getWidth() - newBossShip.width), 0);
+	/**
+	 * Draws the sprites of a frame, from an index on: from 0 for enemies, bullets, the ship and
+	 * explosions, or from the first explosion for the explosions alone.
+	 * @param frame the frame
+	 * @param from the index of the first sprite to draw
+	 * @param alpha how far the game is between the previous simulation step (0) and the frame's (1)
+	 */
+	private void drawSprites(RenderSnapshot frame, int from, float alpha){
+		if(softwareSprites){
+			listSprites(frame, from, alpha);
+			if(rasterizer.size() >= PARALLEL_SPRITES){
+				bands.run((logicalHeight + BAND_HEIGHT - 1) / BAND_HEIGHT, drawBandsTask);
 			}
 			else{
-				// draw explosion
-				graphicsMan.drawAsteroidExplosion(asteroidExplosion, g2d, this);
+				rasterizer.draw(0, 0, logicalWidth, logicalHeight);
 			}
+			return;
+		}
+		for(int i=from, n=frame.size(); i<n; i++){
+			graphicsMan.drawSprite(frame.getSprite(i), frame.getInterpolatedX(i, alpha),
+					frame.getInterpolatedY(i, alpha), g2d, this);
 		}
 	}
 
+	/**
+	 * Draws the debris particles of a frame, on top of the sprites.
+	 * @param frame the frame
+	 * @param alpha how far the game is between the previous simulation step (0) and the frame's (1)
+	 */
+	private void drawParticles(RenderSnapshot frame, float alpha){
+		for(int i=0, n=frame.getParticleCount(); i<n; i++){
+			graphicsMan.drawParticle(frame.getParticlePalette(i), frame.getParticleFade(i),
+					frame.getParticleX(i, alpha), frame.getParticleY(i, alpha), g2d);
+		}
+	}
 
-	public void bulletAsteroidCollision(List<Bullet> bullets, Asteroid newAsteroid){
-		for(int i=0; i<bullets.size(); i++){
-			Bullet bullet = bullets.get(i);
-			if(newAsteroid.intersects(bullet)){
-				// increase asteroids destroyed count
-				status.setAsteroidsDestroyed(status.getAsteroidsDestroyed() + 1);
-				//increase number of points
-				status.setPoints(status.getPoints() + 100);
-				if(status.getAsteroidsDestroyed() % 5 == 0){
-					//increase level each time you destroy 5 asteroids
-					status.setLevel(status.getLevel() + 1);
+	/**
+	 * Lists the sprites of a frame, from an index on, for the rasterizer to draw.
+	 * @param frame the frame
+	 * @param from the index of the first sprite to draw
+	 * @param alpha how far the game is between the previous simulation step (0) and the frame's (1)
+	 */
+	private void listSprites(RenderSnapshot frame, int from, float alpha){
+		if(rasterizer == null || rasterizer.getCapacity() < frame.getCapacity()){
+			rasterizer = new SpriteRasterizer(graphicsMan.getAtlas(), frame.getCapacity());
+			rasterizer.setTarget(backBuffer);
+		}
+		rasterizer.clear();
+		for(int i=from, n=frame.size(); i<n; i++){
+			rasterizer.add(frame.getSprite(i), frame.getInterpolatedX(i, alpha), frame.getInterpolatedY(i, alpha));
+		}
+	}
 
-				}
+	/**
+	 * Draws the listed software sprites in a range of bands of rows.
+	 */
+	private final ParallelRanges.RangeTask drawBandsTask = new ParallelRanges.RangeTask(){
+		public long run(int from, int to) {
+			rasterizer.draw(0, from * BAND_HEIGHT, logicalWidth, to * BAND_HEIGHT);
+			return 0;
+		}
+	};
 
-				// "remove" newAsteroid
-				asteroidExplosion = new Rectangle(
-						newAsteroid.x,
-						newAsteroid.y,
-						newAsteroid.width,
-						newAsteroid.height);
-				newAsteroid.setLocation(-newAsteroid.width, -newAsteroid.height);
-				status.setNewAsteroid(true);
-				lastAsteroidTime = System.currentTimeMillis();
-
-				// play asteroid explosion sound
-				soundMan.playAsteroidExplosionSound();
-
-				// remove bullet
-				bullets.remove(i);
-				break;
-			}
+	/**
+	 * Adds the screen area drawSprites(RenderSnapshot, int, float) and
+	 * drawParticles(RenderSnapshot, float) draw to.
+	 * @param frame the frame
+	 * @param alpha how far the game is between the previous simulation step (0) and the frame's (1)
+	 * @param regions where to add the bounds of each sprite and particle
+	 */
+	private void addSpriteBounds(RenderSnapshot frame, float alpha, DirtyRegions regions){
+		SpriteAtlas atlas = graphicsMan.getAtlas();
+		for(int i=0, n=frame.size(); i<n; i++){
+			int id = frame.getSprite(i);
+			regions.add(frame.getInterpolatedX(i, alpha), frame.getInterpolatedY(i, alpha),
+					atlas.getWidth(id), atlas.getHeight(id));
 		}
-	}
-	
-	public void bulletEnemyShipCollision(List<Bullet> bullets, EnemyShip newEnemyShip){
-		for(int i=0; i<bullets.size(); i++){
-			Bullet bullet = bullets.get(i);
-			if(newEnemyShip.intersects(bullet)){
-				// increase enemy ships destroyed count
-				status.setEnemyShipsDestroyed(status.getEnemyShipsDestroyed() + 1);
-				//increase number of points
-				status.setPoints(status.getPoints() + 250);						
-
-				// "remove" asteroid
-				asteroidExplosion = new Rectangle(
-						newEnemyShip.x,
-						newEnemyShip.y,
-						newEnemyShip.width,
-						newEnemyShip.height);
-				newEnemyShip.setLocation(-newEnemyShip.width, -newEnemyShip.height);
-				status.setNewEnemyShip(true);
-				lastAsteroidTime = System.currentTimeMillis();
-
-				// play asteroid explosion sound
-				soundMan.playAsteroidExplosionSound();
-
-				// remove bullet
-				bullets.remove(i);
-				break;
-			}
+		int size = graphicsMan.getParticleSize();
+		for(int i=0, n=frame.getParticleCount(); i<n; i++){
+			regions.add(frame.getParticleX(i, alpha), frame.getParticleY(i, alpha), size, size);
 		}
 	}
 
-	public void bulletBossShipCollision(List<Bullet> bullets, EnemyShip newBossShip){
-		for(int i=0; i<bullets.size(); i++){
-			Bullet bullet = bullets.get(i);
-			if(newBossShip.intersects(bullet)){
-				// increase enemy ships destroyed count
-				status.setBossShipsDestroyed(status.getBossShipsDestroyed() + 1);
-				//increase number of points
-				status.setPoints(status.getPoints() + 250);
-
-				// "remove" asteroid
-				asteroidExplosion = new Rectangle(
-						newBossShip.x,
-						newBossShip.y,
-						newBossShip.width,
-						newBossShip.height);
-				newBossShip.setLocation(-newBossShip.width, -newBossShip.height);
-				status.setNewBossShip(true);
-				lastAsteroidTime = System.currentTimeMillis();
-
-				// play asteroid explosion sound
-				soundMan.playAsteroidExplosionSound();
-
-				// remove bullet
-				bullets.remove(i);
-				break;
-			}
+	/**
+	 * Draws the frame timing overlay in the top left corner of the screen.
+	 * @param lines the overlay text lines
+	 */
+	private void drawDebugOverlay(String[] lines) {
+		if(debugFont == null){
+			debugFont = new Font(Font.MONOSPACED, Font.PLAIN, 10);
 		}
-	}
-	
-	public void shipAsteroidCollision(Ship ship, Asteroid newAsteroid){
-		if(newAsteroid.intersects(ship)){
-			// decrease number of ships left
-			status.setShipsLeft(status.getShipsLeft() - 1);
-
-			status.setAsteroidsDestroyed(status.getAsteroidsDestroyed() + 1);
-
-			// "remove" asteroid
-			asteroidExplosion = new Rectangle(
-					newAsteroid.x,
-					newAsteroid.y,
-					newAsteroid.width,
-					newAsteroid.height);
-			newAsteroid.setLocation(-newAsteroid.width, -newAsteroid.height);
-			status.setNewAsteroid(true);
-			lastAsteroidTime = System.currentTimeMillis();
-
-			// "remove" ship
-			shipExplosion = new Rectangle(
-					ship.x,
-					ship.y,
-					ship.width,
-					ship.height);
-			ship.setLocation(this.getWidth() + ship.width, -ship.height);
-			status.setNewShip(true);
-			lastShipTime = System.currentTimeMillis();
-
-			// play ship explosion sound
-			soundMan.playShipExplosionSound();
-			// play asteroid explosion sound
-			soundMan.playAsteroidExplosionSound();
+		g2d.setFont(debugFont);
+		FontMetrics fm = g2d.getFontMetrics();
+		int lineHeight = fm.getHeight();
+		int boxWidth = 0;
+		for(int i=0; i<lines.length; i++){
+			boxWidth = Math.max(boxWidth, fm.stringWidth(lines[i]));
 		}
-	}
-	
-	
-	public void shipEnemyShipCollision(Ship targetShip, EnemyShip targetEnemyShip){
-		if(targetEnemyShip.intersects(targetShip)){
-			// decrease number of ships left
-			status.setShipsLeft(status.getShipsLeft() - 1);
-
-			status.setAsteroidsDestroyed(status.getAsteroidsDestroyed() + 1);
-
-			// "remove" asteroid
-			asteroidExplosion = new Rectangle(
-					targetEnemyShip.x,
-					targetEnemyShip.y,
-					targetEnemyShip.width,
-					targetEnemyShip.height);
-			targetEnemyShip.setLocation(-targetEnemyShip.width, -targetEnemyShip.height);
-			status.setNewAsteroid(true);
-			lastAsteroidTime = System.currentTimeMillis();
-
-			// "remove" ship
-			shipExplosion = new Rectangle(
-					targetShip.x,
-					targetShip.y,
-					targetShip.width,
-					targetShip.height);
-			targetShip.setLocation(this.getWidth() + targetShip.width, -targetShip.height);
-			status.setNewShip(true);
-			lastShipTime = System.currentTimeMillis();
-
-			// play ship explosion sound
-			soundMan.playShipExplosionSound();
-			// play asteroid explosion sound
-			soundMan.playAsteroidExplosionSound();
-		}
-	}
-
-	public void shipBossShipCollision(Ship targetShip, EnemyShip targetBossShip){
-		if(targetBossShip.intersects(targetShip)){
-			// decrease number of ships left
-			status.setShipsLeft(status.getShipsLeft() - 1);
-
-			status.setAsteroidsDestroyed(status.getAsteroidsDestroyed() + 1);
-
-			// "remove" asteroid
-			asteroidExplosion = new Rectangle(
-					targetBossShip.x,
-					targetBossShip.y,
-					targetBossShip.width,
-					targetBossShip.height);
-			targetBossShip.setLocation(-targetBossShip.width, -targetBossShip.height);
-			status.setNewAsteroid(true);
-			lastAsteroidTime = System.currentTimeMillis();
-
-			// "remove" ship
-			shipExplosion = new Rectangle(
-					targetShip.x,
-					targetShip.y,
-					targetShip.width,
-					targetShip.height);
-			targetShip.setLocation(this.getWidth() + targetShip.width, -targetShip.height);
-			status.setNewBossShip(true);
-			lastShipTime = System.currentTimeMillis();
-
-			// play ship explosion sound
-			soundMan.playShipExplosionSound();
-			// play asteroid explosion sound
-			soundMan.playAsteroidExplosionSound();
+		g2d.setPaint(DEBUG_BACKGROUND);
+		g2d.fillRect(0, 0, boxWidth + 8, lines.length * lineHeight + 8);
+		g2d.setPaint(Color.GREEN);
+		for(int i=0; i<lines.length; i++){
+			g2d.drawString(lines[i], 4, 4 + fm.getAscent() + i * lineHeight);
 		}
 	}
 
@@ -546,23 +695,16 @@ public class GameScreen extends JPanel {
 	 */
 	private void drawGameOver() {
 		String gameOverStr = "GIT GUD OR GET REKT";
-		Font currentFont = biggestFont == null? bigFont : biggestFont;
-		float fontSize = currentFont.getSize2D();
-		bigFont = currentFont.deriveFont(fontSize + 1).deriveFont(Font.BOLD);
-		FontMetrics fm = g2d.getFontMetrics(bigFont);
-		int strWidth = fm.stringWidth(gameOverStr);
-		if(strWidth > this.getWidth() - 10){
-			biggestFont = currentFont;
-			bigFont = biggestFont;
-			fm = g2d.getFontMetrics(bigFont);
-			strWidth = fm.stringWidth(gameOverStr);
-		}
-		int ascent = fm.getAscent();
-		int strX = (this.getWidth() - strWidth)/2;
-		int strY = (this.getHeight() + ascent)/2;
-		g2d.setFont(bigFont);
-		g2d.setPaint(Color.WHITE);
-		g2d.drawString(gameOverStr, strX, strY);
+		if(gameOverFont == null){
+			gameOverFont = fitFont(originalFont.deriveFont(Font.BOLD), gameOverStr);
+		}
+		TextRenderer.Text text = textRenderer.getText(gameOverStr, gameOverFont, Color.WHITE);
+		float scale = zoom(gameOverFont);
+		int strWidth = Math.round(text.getWidth() * scale);
+		int ascent = Math.round(text.getAscent() * scale);
+		int strX = (logicalWidth - strWidth)/2;
+		int strY = (logicalHeight + ascent)/2;
+		textRenderer.drawScaled(g2d, text, scale, strX, strY);
 	}
 
 	/**
@@ -570,27 +712,13 @@ public class GameScreen extends JPanel {
 	 */
 	private void drawGetReady() {
 		String readyStr = "Get Ready!";
-		g2d.setFont(originalFont.deriveFont(originalFont.getSize2D() + 1));
-		FontMetrics fm = g2d.getFontMetrics();
-		int ascent = fm.getAscent();
-		int strWidth = fm.stringWidth(readyStr);
-		int strX = (this.getWidth() - strWidth)/2;
-		int strY = (this.getHeight() + ascent)/2;
-		g2d.setPaint(Color.WHITE);
-		g2d.drawString(readyStr, strX, strY);
-	}
-
-	/**
-	 * Draws the specified number of stars randomly on the game screen.
-	 * @param numberOfStars the number of stars to draw
-	 */
-	private void drawStars(int numberOfStars) {
-		g2d.setColor(Color.WHITE);
-		for(int i=0; i<numberOfStars; i++){
-			int x = (int)(Math.random() * this.getWidth());
-			int y = (int)(Math.random() * this.getHeight());
-			g2d.drawLine(x, y, x, y);
+		if(readyFont == null){
+			readyFont = originalFont.deriveFont(originalFont.getSize2D() + 1);
 		}
+		TextRenderer.Text text = textRenderer.getText(readyStr, readyFont, Color.WHITE);
+		int strX = (logicalWidth - text.getWidth())/2;
+		int strY = (logicalHeight + text.getAscent())/2;
+		textRenderer.drawScaled(g2d, text, 1f, strX, strY);
 	}
 
 	/**
@@ -598,68 +726,63 @@ public class GameScreen extends JPanel {
 	 */
 	private void initialMessage() {
 		String gameTitleStr = "Caw Space";
+		if(titleFont == null){
+			titleFont = fitFont(originalFont.deriveFont(Font.BOLD | Font.ITALIC), gameTitleStr);
+		}
+		TextRenderer.Text text = textRenderer.getText(gameTitleStr, titleFont, Color.YELLOW);
+		float scale = zoom(titleFont);
+		int strWidth = Math.round(text.getWidth() * scale);
+		int ascent = Math.round(text.getAscent() * scale);
+		int strX = (logicalWidth - strWidth)/2;
+		int strY = (logicalHeight + ascent)/2 - ascent;
+		textRenderer.drawScaled(g2d, text, scale, strX, strY);
 
-		Font currentFont = biggestFont == null? bigFont : biggestFont;
-		float fontSize = currentFont.getSize2D();
-		bigFont = currentFont.deriveFont(fontSize + 1).deriveFont(Font.BOLD).deriveFont(Font.ITALIC);
-		FontMetrics fm = g2d.getFontMetrics(bigFont);
-		int strWidth = fm.stringWidth(gameTitleStr);
-		if(strWidth > this.getWidth() - 10){
-			bigFont = currentFont;
-			biggestFont = currentFont;
-			fm = g2d.getFontMetrics(currentFont);
-			strWidth = fm.stringWidth(gameTitleStr);
-		}
-		g2d.setFont(bigFont);
-		int ascent = fm.getAscent();
-		int strX = (this.getWidth() - strWidth)/2;
-		int strY = (this.getHeight() + ascent)/2 - ascent;
-		g2d.setPaint(Color.YELLOW);
-		g2d.drawString(gameTitleStr, strX, strY);
-
-		g2d.setFont(originalFont);
-		fm = g2d.getFontMetrics();
 		String newGameStr = "Press <Space> to Start a New Game.";
-		strWidth = fm.stringWidth(newGameStr);
-		strX = (this.getWidth() - strWidth)/2;
-		strY = (this.getHeight() + fm.getAscent())/2 + ascent + 16;
-		g2d.setPaint(Color.WHITE);
-		g2d.drawString(newGameStr, strX, strY);
+		text = textRenderer.getText(newGameStr, originalFont, Color.WHITE);
+		strX = (logicalWidth - text.getWidth())/2;
+		strY = (logicalHeight + text.getAscent())/2 + ascent + 16;
+		textRenderer.drawScaled(g2d, text, 1f, strX, strY);
 
-		fm = g2d.getFontMetrics();
 		String exitGameStr = "Press <Esc> to Exit the Game.";
-		strWidth = fm.stringWidth(exitGameStr);
-		strX = (this.getWidth() - strWidth)/2;
+		text = textRenderer.getText(exitGameStr, originalFont, Color.WHITE);
+		strX = (logicalWidth - text.getWidth())/2;
 		strY = strY + 16;
-		g2d.drawString(exitGameStr, strX, strY);
+		textRenderer.drawScaled(g2d, text, 1f, strX, strY);
 	}
 
 	/**
-	 * Prepare screen for game over.
+	 * Returns the largest size of a font that fits a string across the screen.
+	 * @param font the font, at the smallest size
+	 * @param text the string
+	 * @return the font at the size that fits
 	 */
-	public void doGameOver(){
-		shipsValueLabel.setForeground(new Color(128, 0, 0));
+	private Font fitFont(Font font, String text) {
+		while(textRenderer.getFontMetrics(font.deriveFont(font.getSize2D() + 1)).stringWidth(text) <= logicalWidth - 10){
+			font = font.deriveFont(font.getSize2D() + 1);
+		}
+		return font;
 	}
 
 	/**
-	 * Prepare screen for a new game.
+	 * Grows the big messages by a point per frame, up to the size of the font they are rendered in.
+	 * @param font the font the message is rendered in
+	 * @return the scale to draw the message at
 	 */
-	public void doNewGame(){		
-		lastAsteroidTime = -NEW_ASTEROID_DELAY;
-		lastShipTime = -NEW_SHIP_DELAY;
-
-		bigFont = originalFont;
-		biggestFont = null;
-
-		// set labels' text
-		shipsValueLabel.setForeground(Color.BLACK);
-		shipsValueLabel.setText(Integer.toString(status.getShipsLeft()));
-		asteroidsDestroyedValueLabel.setText(Long.toString(status.getAsteroidsDestroyed()));
-		shipsDestroyedValueLabel.setText(Long.toString(status.getAsteroidsDestroyed()));
-		pointsValueLabel.setText(Integer.toString(status.getPoints()));
-		levelValueLabel.setText(Integer.toString(status.getLevel()));
-
+	private float zoom(Font font) {
+		zoomSize = Math.min(zoomSize + 1, font.getSize2D());
+		return zoomSize / font.getSize2D();
+	}
 
+	/**
+	 * Returns the status label updater, creating it once the labels are set.
+	 * @return the status label updater
+	 */
+	private HudUpdater getHud() {
+		if(hud == null){
+			hud = new HudUpdater(shipsValueLabel, asteroidsDestroyedValueLabel, shipsDestroyedValueLabel,
+					pointsValueLabel, levelValueLabel);
+		}
+		return hud;
 	}
 
 	/**
@@ -668,6 +791,7 @@ public class GameScreen extends JPanel {
 	 */
 	public void setGraphicsMan(GraphicsManager graphicsMan) {
 		this.graphicsMan = graphicsMan;
+		this.rasterizer = null;
 	}
 
 	/**
@@ -676,8 +800,6 @@ public class GameScreen extends JPanel {
 	 */
 	public void setGameLogic(GameLogic gameLogic) {
 		this.gameLogic = gameLogic;
-		this.status = gameLogic.getStatus();
-		this.soundMan = gameLogic.getSoundMan();
 	}
 
 	/**
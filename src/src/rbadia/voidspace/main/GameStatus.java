@@ -2,8 +2,81 @@ package rbadia.voidspace.main;
 
 /**
  * Container for game flags and/or status variables.
+ * <p>
+ * The status belongs to the game loop thread: only the simulation reads and writes it directly,
+ * without locks. Once per tick the simulation publishes an immutable {@link Snapshot}, which any
+ * other thread (the screen, input handling, metrics) can read at any time without blocking it.
  */
 public class GameStatus {
+	/**
+	 * An immutable copy of the game status at the end of a tick.
+	 */
+	public static final class Snapshot {
+		private final boolean gameStarted;
+		private final boolean gameStarting;
+		private final boolean gameOver;
+		private final boolean newShip;
+		private final long asteroidsDestroyed;
+		private final long enemyShipsDestroyed;
+		private final long bossShipsDestroyed;
+		private final int shipsLeft;
+		private final int points;
+		private final int level;
+
+		private Snapshot(GameStatus status) {
+			this.gameStarted = status.gameStarted;
+			this.gameStarting = status.gameStarting;
+			this.gameOver = status.gameOver;
+			this.newShip = status.newShip;
+			this.asteroidsDestroyed = status.asteroidsDestroyed;
+			this.enemyShipsDestroyed = status.enemyShipsDestroyed;
+			this.bossShipsDestroyed = status.bossShipDestroyed;
+			this.shipsLeft = status.shipsLeft;
+			this.points = status.pointsEarned;
+			this.level = status.level;
+		}
+
+		public boolean isGameStarted() {
+			return gameStarted;
+		}
+
+		public boolean isGameStarting() {
+			return gameStarting;
+		}
+
+		public boolean isGameOver() {
+			return gameOver;
+		}
+
+		public boolean isNewShip() {
+			return newShip;
+		}
+
+		public long getAsteroidsDestroyed() {
+			return asteroidsDestroyed;
+		}
+
+		public long getEnemyShipsDestroyed() {
+			return enemyShipsDestroyed;
+		}
+
+		public long getBossShipsDestroyed() {
+			return bossShipsDestroyed;
+		}
+
+		public int getShipsLeft() {
+			return shipsLeft;
+		}
+
+		public int getPoints() {
+			return points;
+		}
+
+		public int getLevel() {
+			return level;
+		}
+	}
+
 	// game flags
 	private boolean gameStarted = false;
 	private boolean gameStarting = false;
@@ -11,132 +84,139 @@ public class GameStatus {
 	
 	// status variables
 	private boolean newShip;
-	private boolean newAsteroid;
-	private boolean newSecondAsteroid;
-	private boolean newEnemyShip;
-	private boolean newSecondEnemyShip;
-	private boolean newBossShip;
 	private long asteroidsDestroyed = 0;
 	private long enemyShipsDestroyed = 0;
     private long bossShipDestroyed = 0;
 	private int shipsLeft;
 	private int pointsEarned;
 	private int level;
+
+	// the last published snapshot, and if anything changed since
+	private volatile Snapshot snapshot;
+	private boolean changed;
 	
 	public GameStatus(){
-		
+		publish();
+	}
+
+	/**
+	 * Publish the current status for other threads, if it changed since the last time. Called by
+	 * the simulation at the end of each tick.
+	 */
+	public void publish() {
+		if(changed || snapshot == null){
+			snapshot = new Snapshot(this);
+			changed = false;
+		}
+	}
+
+	/**
+	 * Returns the status as of the last time it was published. Safe to call from any thread.
+	 * @return the status snapshot
+	 */
+	public Snapshot getSnapshot() {
+		return snapshot;
 	}
 	
 	/**
 	 * Indicates if the game has already started or not.
 	 * @return if the game has already started or not
 	 */
-	public synchronized boolean isGameStarted() {
+	public boolean isGameStarted() {
 		return gameStarted;
 	}
 	
-	public synchronized void setGameStarted(boolean gameStarted) {
+	public void setGameStarted(boolean gameStarted) {
 		this.gameStarted = gameStarted;
+		this.changed = true;
 	}
 	
 	/**
 	 * Indicates if the game is starting ("Get Ready" message is displaying) or not.
 	 * @return if the game is starting or not.
 	 */
-	public synchronized boolean isGameStarting() {
+	public boolean isGameStarting() {
 		return gameStarting;
 	}
 	
-	public synchronized void setGameStarting(boolean gameStarting) {
+	public void setGameStarting(boolean gameStarting) {
 		this.gameStarting = gameStarting;
+		this.changed = true;
 	}
 	
 	/**
 	 * Indicates if the game has ended and the "Game Over" message is displaying.
 	 * @return if the game has ended and the "Game Over" message is displaying.
 	 */
-	public synchronized boolean isGameOver() {
+	public boolean isGameOver() {
 		return gameOver;
 	}
 	
-	public synchronized void setGameOver(boolean gameOver) {
+	public void setGameOver(boolean gameOver) {
 		this.gameOver = gameOver;
+		this.changed = true;
 	}
 	
 	/**
 	 * Indicates if a new ship should be created/drawn.
 	 * @return if a new ship should be created/drawn
 	 */
-	public synchronized boolean isNewShip() {
+	public boolean isNewShip() {
 		return newShip;
 	}
 
-	public synchronized void setNewShip(boolean newShip) {
+	public void setNewShip(boolean newShip) {
 		this.newShip = newShip;
+		this.changed = true;
 	}
 
 	/**
-	 * Indicates if a new asteroid should be created/drawn.
-	 * @return if a new asteroid should be created/drawn
-	 */
-	public synchronized boolean isNewAsteroid() {
-		return newAsteroid;
-	}
-
-	public synchronized void setNewAsteroid(boolean newAsteroid) {
-		this.newAsteroid = newAsteroid;
-	}
-	
-	public synchronized void setNewSecondAsteroid(boolean newAsteroid) {
-		this.newSecondAsteroid = newAsteroid;
-	}
-	
-	/**
-	 * Indicates if a new enemy ship should be created/drawn.
-	 * @return if a new enemy ship should be created/drawn
+	 * Apply the results of a tick's collisions, all in one update.
+	 * @param points the points earned
+	 * @param levels the levels gained
+	 * @param shipsLost the ships lost (if any, a new ship should be created)
+	 * @param asteroids the asteroids destroyed
+	 * @param enemyShips the enemy ships destroyed
+	 * @param bossShips the boss ships destroyed
 	 */
-	public synchronized boolean isNewEnemyShip(){
-		return newEnemyShip;
-	}
-	
-	public synchronized void setNewEnemyShip(boolean newEnemyShip){
-		this.newEnemyShip = newEnemyShip;
-	}
-	
-	public synchronized void setNewSecondEnemyShip(boolean newEnemyShip){
-		this.newSecondEnemyShip = newEnemyShip;
+	public void addCollisionResults(int points, int levels, int shipsLost,
+			long asteroids, long enemyShips, long bossShips) {
+		this.pointsEarned += points;
+		this.level += levels;
+		this.shipsLeft -= shipsLost;
+		this.asteroidsDestroyed += asteroids;
+		this.enemyShipsDestroyed += enemyShips;
+		this.bossShipDestroyed += bossShips;
+		if(shipsLost > 0){
+			this.newShip = true;
+		}
+		this.changed = true;
 	}
 
-	/**
-	 * Indicates if a new boss ship should be created/drawn.
-	 * @return if a new boss ship should be created/drawn.
-	 */
-	public synchronized boolean isNewBossShip() {return newBossShip;}
-
-	public synchronized void setNewBossShip(boolean newBossShip) { this.newBossShip = newBossShip;}
-
 	/**
 	 * Returns the number of asteroid destroyed. 
 	 * @return the number of asteroid destroyed
 	 */
-	public synchronized long getAsteroidsDestroyed() {
+	public long getAsteroidsDestroyed() {
 		return asteroidsDestroyed;
 	}
 
-	public synchronized void setAsteroidsDestroyed(long asteroidsDestroyed) {
+	public void setAsteroidsDestroyed(long asteroidsDestroyed) {
 		this.asteroidsDestroyed = asteroidsDestroyed;
+		this.changed = true;
 	}
 	
 	/**
 	 * Returns the number of enemies destroyed. 
 	 * @return the number of enemies destroyed
 	 */
-	public synchronized long getEnemyShipsDestroyed() {
+	public long getEnemyShipsDestroyed() {
 		return enemyShipsDestroyed;
 	}
 
-	public synchronized void setEnemyShipsDestroyed(long enemiesDestroyed) {
+	public void setEnemyShipsDestroyed(long enemiesDestroyed) {
 		this.enemyShipsDestroyed = enemiesDestroyed;
+		this.changed = true;
 	}
 
 
@@ -144,32 +224,37 @@ public class GameStatus {
 	 * Returns the number of enemies destroyed.
 	 * @return the number of enemies destroyed
      */
-	public synchronized long getBossShipsDestroyed() { return bossShipDestroyed;}
+	public long getBossShipsDestroyed() { return bossShipDestroyed;}
 
-	public synchronized void setBossShipsDestroyed(long bossShipDestroyed) { this.bossShipDestroyed = bossShipDestroyed;}
+	public void setBossShipsDestroyed(long bossShipDestroyed) {
+		this.bossShipDestroyed = bossShipDestroyed;
+		this.changed = true;
+	}
 
 	/**
 	 * Returns the number ships/lives left.
 	 * @return the number ships left
 	 */
-	public synchronized int getShipsLeft() {
+	public int getShipsLeft() {
 		return shipsLeft;
 	}	
 
-	public synchronized void setShipsLeft(int shipsLeft) {
+	public void setShipsLeft(int shipsLeft) {
 		this.shipsLeft = shipsLeft;
+		this.changed = true;
 	}
 	
 	/**
 	 * Returns the points accumulated
 	 * @return the points accumulated
 	 */
-	public synchronized int getPoints() {
+	public int getPoints() {
 		return pointsEarned;
 	}
 	
-	public synchronized void setPoints(int points) {
+	public void setPoints(int points) {
 		this.pointsEarned = points;
+		this.changed = true;
 	}
 	
 	/**
@@ -180,8 +265,9 @@ public class GameStatus {
 		return level;
 	}
 	
-	public synchronized void setLevel(int level) {
+	public void setLevel(int level) {
 		this.level = level;
+		this.changed = true;
 	}
 
 }
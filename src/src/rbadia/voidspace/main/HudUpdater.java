@@ -0,0 +1,104 @@
+package rbadia.voidspace.main;
+
+import java.awt.Color;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+
+/**
+ * Keeps the status labels next to the game screen up to date. The render loop hands over each new
+ * status snapshot; the labels are then updated on the event dispatch thread, only the ones whose
+ * value changed, in a single batch. Snapshots that arrive before the last batch ran are coalesced,
+ * so there is at most one batch waiting at any time.
+ */
+public class HudUpdater {
+	private static final Color NO_SHIPS_COLOR = new Color(128, 0, 0);
+
+	private final JLabel shipsValueLabel;
+	private final JLabel asteroidsDestroyedValueLabel;
+	private final JLabel shipsDestroyedValueLabel;
+	private final JLabel pointsValueLabel;
+	private final JLabel levelValueLabel;
+
+	// render thread: the last snapshot handed over
+	private GameStatus.Snapshot lastStatus;
+
+	// handed over to the event dispatch thread
+	private volatile GameStatus.Snapshot pendingStatus;
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+
+	// event dispatch thread: the values the labels show
+	private int shownShips = -1;
+	private long shownAsteroids = -1;
+	private long shownEnemyShips = -1;
+	private int shownPoints = -1;
+	private int shownLevel = -1;
+
+	/**
+	 * Creates a new status label updater.
+	 * @param shipsValueLabel the label for the ships left
+	 * @param asteroidsDestroyedValueLabel the label for the asteroids destroyed
+	 * @param shipsDestroyedValueLabel the label for the enemy ships destroyed
+	 * @param pointsValueLabel the label for the points earned
+	 * @param levelValueLabel the label for the current level
+	 */
+	public HudUpdater(JLabel shipsValueLabel, JLabel asteroidsDestroyedValueLabel, JLabel shipsDestroyedValueLabel,
+			JLabel pointsValueLabel, JLabel levelValueLabel) {
+		this.shipsValueLabel = shipsValueLabel;
+		this.asteroidsDestroyedValueLabel = asteroidsDestroyedValueLabel;
+		this.shipsDestroyedValueLabel = shipsDestroyedValueLabel;
+		this.pointsValueLabel = pointsValueLabel;
+		this.levelValueLabel = levelValueLabel;
+	}
+
+	/**
+	 * Show a status in the labels, if it is not the one shown already. Called by the render loop,
+	 * once per frame.
+	 * @param status the game status
+	 */
+	public void update(GameStatus.Snapshot status) {
+		// a snapshot is only replaced when the status changed
+		if(status == lastStatus){
+			return;
+		}
+		lastStatus = status;
+		pendingStatus = status;
+		if(scheduled.compareAndSet(false, true)){
+			SwingUtilities.invokeLater(applyTask);
+		}
+	}
+
+	/**
+	 * Updates the labels whose value changed, on the event dispatch thread.
+	 */
+	private final Runnable applyTask = new Runnable(){
+		public void run() {
+			// let the next snapshot schedule another batch before reading this one
+			scheduled.set(false);
+			GameStatus.Snapshot status = pendingStatus;
+
+			if(status.getShipsLeft() != shownShips){
+				shownShips = status.getShipsLeft();
+				shipsValueLabel.setForeground(shownShips == 0 ? NO_SHIPS_COLOR : Color.BLACK);
+				shipsValueLabel.setText(Integer.toString(shownShips));
+			}
+			if(status.getAsteroidsDestroyed() != shownAsteroids){
+				shownAsteroids = status.getAsteroidsDestroyed();
+				asteroidsDestroyedValueLabel.setText(Long.toString(shownAsteroids));
+			}
+			if(status.getEnemyShipsDestroyed() != shownEnemyShips){
+				shownEnemyShips = status.getEnemyShipsDestroyed();
+				shipsDestroyedValueLabel.setText(Long.toString(shownEnemyShips));
+			}
+			if(status.getPoints() != shownPoints){
+				shownPoints = status.getPoints();
+				pointsValueLabel.setText(Integer.toString(shownPoints));
+			}
+			if(status.getLevel() != shownLevel){
+				shownLevel = status.getLevel();
+				levelValueLabel.setText(Integer.toString(shownLevel));
+			}
+		}
+	};
+}
@@ -16,7 +16,7 @@ public class InputHandler implements KeyListener{
 	private boolean spaceIsPressed;
 	private boolean shiftIsPressed;
 	
-	private long lastBulletTime;
+	private long lastBulletTick;
 	
 	private GameLogic gameLogic;
 	
@@ -29,18 +29,17 @@ public class InputHandler implements KeyListener{
 	}
 	
 	/**
-	 * Handle user input after screen update.
-	 * @param gameScreen he game screen
+	 * Handle user input after the game world update.
 	 */
-	public void handleInput(GameScreen gameScreen){
-		GameStatus status = gameLogic.getStatus();
+	public void handleInput(){
+		GameStatus.Snapshot status = gameLogic.getStatus().getSnapshot();
 		if(!status.isGameOver() && !status.isNewShip() && !status.isGameStarting()){
 			// fire bullet if space is pressed
 			if(spaceIsPressed){
 				// fire only up to 5 bullets per second
-				long currentTime = System.currentTimeMillis();
-				if((currentTime - lastBulletTime) > 1000/5){
-					lastBulletTime = currentTime;
+				long currentTick = gameLogic.getTick();
+				if((currentTick - lastBulletTick) > GameLogic.TICKS_PER_SECOND/5){
+					lastBulletTick = currentTick;
 					gameLogic.fireBullet();
 				}
 			}
@@ -56,7 +55,7 @@ public class InputHandler implements KeyListener{
 			}
 
 			if(downIsPressed){
-				moveShipDown(ship, gameScreen.getHeight());
+				moveShipDown(ship, gameLogic.getHeight());
 			}
 
 			if(leftIsPressed){
@@ -64,7 +63,7 @@ public class InputHandler implements KeyListener{
 			}
 
 			if(rightIsPressed){
-				moveShipRight(ship, gameScreen.getWidth());
+				moveShipRight(ship, gameLogic.getWidth());
 			}
 		}
 	}
@@ -84,7 +83,7 @@ public class InputHandler implements KeyListener{
 	 * @param ship the ship
 	 */
 	private void moveShipDown(Ship ship, int screenHeight){
-		if(ship.getY() + ship.getSpeed() + ship.height < screenHeight){
+		if(ship.getY() + ship.getSpeed() + ship.getHeight() < screenHeight){
 			ship.translate(0, ship.getSpeed());
 		}
 	}
@@ -104,7 +103,7 @@ public class InputHandler implements KeyListener{
 	 * @param ship the ship
 	 */
 	private void moveShipRight(Ship ship, int screenWidth){
-		if(ship.getX() + ship.getSpeed() + ship.width < screenWidth){
+		if(ship.getX() + ship.getSpeed() + ship.getWidth() < screenWidth){
 			ship.translate(ship.getSpeed(), 0);
 		}
 	}
@@ -127,17 +126,16 @@ public class InputHandler implements KeyListener{
 			this.rightIsPressed = true;
 			break;
 		case KeyEvent.VK_SPACE:
-			GameStatus status = gameLogic.getStatus();
+			GameStatus.Snapshot status = gameLogic.getStatus().getSnapshot();
 			if(!status.isGameStarted() && !status.isGameOver() && !status.isGameStarting()){
-				// new game
-				lastBulletTime = System.currentTimeMillis();
+				// new game; the "Get Ready" screen keeps the ship from firing right away
 				leftIsPressed = false;
 				rightIsPressed = false;
 				downIsPressed = false;
 				upIsPressed = false;
 				spaceIsPressed = false;
 				
-				gameLogic.newGame();
+				gameLogic.requestNewGame();
 			}
 			else{
 				this.spaceIsPressed = true;
@@ -146,6 +144,14 @@ public class InputHandler implements KeyListener{
 		case KeyEvent.VK_SHIFT:
 			this.shiftIsPressed = true;
 			break;
+		case KeyEvent.VK_F3:
+			// show/hide the frame timing overlay
+			gameLogic.getProfiler().toggleOverlay();
+			break;
+		case KeyEvent.VK_F4:
+			// write the frame timings to a CSV file
+			gameLogic.getProfiler().requestDump();
+			break;
 		case KeyEvent.VK_ESCAPE:
 			System.exit(1);
 			break;
@@ -0,0 +1,111 @@
+package rbadia.voidspace.main;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size latency histogram. Values are counted in log-linear buckets (16 buckets per power
+ * of two, so any reported value is within about 6% of the real one). Recording a value never
+ * allocates memory.
+ */
+public class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int NUM_BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+	private final long[] counts = new long[NUM_BUCKETS];
+	private long count;
+	private long total;
+	private long max;
+
+	/**
+	 * Add a value to the histogram.
+	 * @param value the value to add (e.g. a duration in nanoseconds)
+	 */
+	public void record(long value) {
+		if(value < 0){
+			value = 0;
+		}
+		counts[bucketIndex(value)]++;
+		count++;
+		total += value;
+		if(value > max){
+			max = value;
+		}
+	}
+
+	/**
+	 * Returns the value below which the given fraction of the recorded values fall.
+	 * @param fraction the fraction, e.g. 0.99 for the 99th percentile
+	 * @return the (approximate) percentile value, or 0 if nothing was recorded
+	 */
+	public long getPercentile(double fraction) {
+		if(count == 0){
+			return 0;
+		}
+		long target = (long) Math.ceil(fraction * count);
+		if(target < 1){
+			target = 1;
+		}
+		long seen = 0;
+		for(int i=0; i<NUM_BUCKETS; i++){
+			seen += counts[i];
+			if(seen >= target){
+				return Math.min(bucketValue(i), max);
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Returns the number of values recorded.
+	 * @return the number of values recorded
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the largest value recorded.
+	 * @return the largest value recorded
+	 */
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * Returns the average of the values recorded.
+	 * @return the average value, or 0 if nothing was recorded
+	 */
+	public long getMean() {
+		return count == 0 ? 0 : total / count;
+	}
+
+	/**
+	 * Forget all recorded values.
+	 */
+	public void reset() {
+		Arrays.fill(counts, 0);
+		count = 0;
+		total = 0;
+		max = 0;
+	}
+
+	private static int bucketIndex(long value) {
+		if(value < SUB_BUCKETS){
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		int top = (int) (value >>> shift);
+		return (shift + 1) * SUB_BUCKETS + (top - SUB_BUCKETS);
+	}
+
+	private static long bucketValue(int index) {
+		if(index < SUB_BUCKETS){
+			return index;
+		}
+		int shift = index / SUB_BUCKETS - 1;
+		long top = index % SUB_BUCKETS + SUB_BUCKETS;
+		// middle of the bucket
+		return (top << shift) + ((1L << shift) >> 1);
+	}
+}
@@ -49,8 +49,9 @@ public class MainFrame extends JFrame {
 	 * @return void
 	 */
 	private void initialize() {
-		this.setSize(550, 500);
 		this.setContentPane(getJContentPane());
+		// fit the game screen at its preferred size; it grows with the window from there
+		this.pack();
 		this.setTitle("Caw Space");
 //		this.setResizable(false);
 		
@@ -132,7 +133,9 @@ public class MainFrame extends JFrame {
 			gridBagConstraints.insets = new Insets(0, 0, 0, 0);
 			gridBagConstraints.gridx = 0;
 			gridBagConstraints.gridy = 0;
-			gridBagConstraints.fill = GridBagConstraints.NONE;
+			gridBagConstraints.fill = GridBagConstraints.BOTH;
+			gridBagConstraints.weightx = 1.0D;
+			gridBagConstraints.weighty = 1.0D;
 			gridBagConstraints.gridwidth = 4;
 			shipsLabel = new JLabel("Ships Left: ");
 			shipsValueLabel = new JLabel("3");
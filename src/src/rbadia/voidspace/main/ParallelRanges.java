@@ -0,0 +1,93 @@
+package rbadia.voidspace.main;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs work over a range of indices (e.g. the entities of a store), split across a fork-join
+ * pool once the range is large enough to be worth it. Below the threshold, or when the pool has
+ * a single thread, the work runs on the calling thread.
+ * <p>
+ * The ranges must be independent of each other: the work on one index may only write to that
+ * index. Anything that depends on the order of the indices (random numbers, removals) belongs in
+ * a sequential pass afterwards, so the results don't depend on the number of threads.
+ */
+public class ParallelRanges {
+	/**
+	 * Work on a range of indices.
+	 */
+	public interface RangeTask {
+		/**
+		 * Does the work for the indices from (inclusive) to (exclusive).
+		 * @param from the first index
+		 * @param to the index after the last one
+		 * @return a count, added up over all ranges (e.g. the number of pairs tested)
+		 */
+		long run(int from, int to);
+	}
+
+	private final ForkJoinPool pool;
+	private final int threshold;
+
+	/**
+	 * Creates a new parallel range runner.
+	 * @param pool the fork-join pool to run the ranges on
+	 * @param threshold the smallest range size worth splitting across the pool
+	 */
+	public ParallelRanges(ForkJoinPool pool, int threshold) {
+		this.pool = pool;
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Indicates if a range of the given size would be split across the pool.
+	 * @param size the number of indices
+	 * @return if the range would run in parallel
+	 */
+	public boolean isParallel(int size) {
+		return size >= threshold && pool.getParallelism() > 1;
+	}
+
+	/**
+	 * Runs a task over the indices from 0 to size - 1.
+	 * @param size the number of indices
+	 * @param task the task
+	 * @return the sum of the counts returned by the task
+	 */
+	public long run(int size, RangeTask task) {
+		if(!isParallel(size)){
+			return task.run(0, size);
+		}
+		// a few chunks per thread, so a slow chunk doesn't hold the others up
+		int chunkSize = Math.max(threshold / 4, size / (pool.getParallelism() * 4) + 1);
+		return pool.invoke(new Split(task, 0, size, chunkSize));
+	}
+
+	private static class Split extends RecursiveTask<Long> {
+		private static final long serialVersionUID = 1L;
+
+		private final RangeTask task;
+		private final int from;
+		private final int to;
+		private final int chunkSize;
+
+		Split(RangeTask task, int from, int to, int chunkSize) {
+			this.task = task;
+			this.from = from;
+			this.to = to;
+			this.chunkSize = chunkSize;
+		}
+
+		@Override
+		protected Long compute() {
+			if(to - from <= chunkSize){
+				return task.run(from, to);
+			}
+			int middle = (from + to) >>> 1;
+			Split left = new Split(task, from, middle, chunkSize);
+			left.fork();
+			long right = new Split(task, middle, to, chunkSize).compute();
+			return left.join() + right;
+		}
+	}
+}
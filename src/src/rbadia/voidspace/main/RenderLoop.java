@@ -0,0 +1,72 @@
+package rbadia.voidspace.main;
+
+/**
+ * Implements the render loop: draws the newest frame the simulation published and shows it on
+ * screen, at its own rate and on its own thread, while the {@link GameLoop} keeps simulating.
+ * The two threads only share the frames' {@link TripleBuffer}, so neither ever waits for the other.
+ */
+public class RenderLoop implements Runnable{
+	// frames drawn per second (-Dvoidspace.fps=120); above the simulation rate, the extra frames
+	// show the sprites in between steps
+	private static final int FRAMES_PER_SECOND = Math.max(Integer.getInteger("voidspace.fps", 60), 1);
+	private static final long FRAME_NANOS = 1000000000L / FRAMES_PER_SECOND;
+
+	private GameScreen gameScreen;
+	private GameLogic gameLogic;
+
+	/**
+	 * Creates a new render loop.
+	 * @param gameScreen the game screen
+	 * @param gameLogic the game logic handler, to take the frames from
+	 */
+	public RenderLoop(GameScreen gameScreen, GameLogic gameLogic){
+		this.gameScreen = gameScreen;
+		this.gameLogic = gameLogic;
+	}
+
+	/**
+	 * Implements the run interface method. Should be called by the running thread.
+	 */
+	public void run() {
+		FrameProfiler profiler = gameLogic.getProfiler();
+		TripleBuffer<RenderSnapshot> frames = gameLogic.getFrames();
+		long nextFrame = System.nanoTime();
+		while(true){
+			long frameStart = System.nanoTime();
+
+			// take the newest frame, if the simulation published one since the last time
+			frames.update();
+			RenderSnapshot frame = frames.getFront();
+			if(frame.getStatus() != null){
+				// draw the world in between the frame's step and the next one
+				gameScreen.drawScreen(frame, frame.getAlpha(frameStart));
+				long phaseEnd = System.nanoTime();
+				profiler.record(FrameProfiler.Phase.DRAW, phaseEnd - frameStart);
+
+				// show the graphics on screen
+				gameScreen.present();
+				long frameEnd = System.nanoTime();
+				profiler.record(FrameProfiler.Phase.PRESENT, frameEnd - phaseEnd);
+				profiler.record(FrameProfiler.Phase.FRAME, frameEnd - frameStart);
+			}
+
+			// sleep/wait until the next frame is due; skip the frames we are too late for
+			nextFrame += FRAME_NANOS;
+			long sleepNanos = nextFrame - System.nanoTime();
+			if(sleepNanos < -FRAME_NANOS){
+				nextFrame = System.nanoTime();
+			}
+			if(sleepNanos > 1000000){
+				try{
+					Thread.sleep(sleepNanos / 1000000, (int) (sleepNanos % 1000000));
+				}
+				catch(InterruptedException e){
+					e.printStackTrace();
+				}
+			}
+			else{
+				Thread.yield();
+			}
+		}
+	}
+}
@@ -0,0 +1,233 @@
+package rbadia.voidspace.main;
+
+import rbadia.voidspace.model.Components;
+import rbadia.voidspace.model.EntityStore;
+import rbadia.voidspace.model.ParticlePool;
+import rbadia.voidspace.model.World;
+
+/**
+ * Everything the screen needs to draw a frame, copied out of the game world at the end of a
+ * simulation step: the sprite and location (at the start and at the end of the step) of every
+ * visible entity, in drawing order, the debris particles, and the game status. The simulation
+ * thread fills snapshots and hands them to the render thread through a {@link TripleBuffer}, so
+ * drawing never reads the world while it changes.
+ * <p>
+ * Snapshots are preallocated and refilled; capturing one doesn't allocate memory.
+ */
+public class RenderSnapshot {
+	private final int[] sprite;
+	private final int[] x;
+	private final int[] y;
+	private final int[] previousX;
+	private final int[] previousY;
+	private int size;
+	// the explosions are drawn last, from this index on
+	private int effectsStart;
+
+	// debris particles, in pixels
+	private final int[] particleX;
+	private final int[] particleY;
+	private final int[] particlePreviousX;
+	private final int[] particlePreviousY;
+	private final int[] particlePalette;
+	private final int[] particleFade;
+	private int particleCount;
+
+	private long tick;
+	private long stepNanos;
+	private GameStatus.Snapshot status;
+
+	/**
+	 * Creates a new, empty snapshot.
+	 * @param capacity the most sprites it can hold
+	 * @param particleCapacity the most particles it can hold
+	 */
+	public RenderSnapshot(int capacity, int particleCapacity) {
+		sprite = new int[capacity];
+		x = new int[capacity];
+		y = new int[capacity];
+		previousX = new int[capacity];
+		previousY = new int[capacity];
+		particleX = new int[particleCapacity];
+		particleY = new int[particleCapacity];
+		particlePreviousX = new int[particleCapacity];
+		particlePreviousY = new int[particleCapacity];
+		particlePalette = new int[particleCapacity];
+		particleFade = new int[particleCapacity];
+	}
+
+	/**
+	 * Copies the visible entities of the world: every entity with a sprite, except the ones
+	 * waiting to respawn, and the ship while a new one is on its way; and the debris particles.
+	 * @param world the game world
+	 * @param status the game status at the end of the step
+	 * @param tick the simulation step
+	 * @param stepNanos the {@link System#nanoTime()} the step was due at
+	 */
+	void capture(World world, GameStatus.Snapshot status, long tick, long stepNanos) {
+		size = 0;
+		effectsStart = 0;
+		EntityStore[] stores = world.getArchetypes(Components.SPRITE);
+		for(int i=0; i<stores.length && stores[i] != null; i++){
+			EntityStore store = stores[i];
+			if(store == world.getEffects()){
+				effectsStart = size;
+			}
+			if(store == world.getPlayers() && status.isNewShip()){
+				continue;
+			}
+			int[] flags = store.flags;
+			for(int j=0, n=store.size(); j<n && size<sprite.length; j++){
+				if((flags[j] & EntityStore.FLAG_RESPAWNING) == 0){
+					sprite[size] = store.sprite[j];
+					x[size] = store.x[j];
+					y[size] = store.y[j];
+					previousX[size] = store.previousX[j];
+					previousY[size] = store.previousY[j];
+					size++;
+				}
+			}
+		}
+
+		ParticlePool particles = world.getParticles();
+		particleCount = Math.min(particles.size(), particleX.length);
+		for(int i=0; i<particleCount; i++){
+			particleX[i] = particles.x[i] >> ParticlePool.FIXED_SHIFT;
+			particleY[i] = particles.y[i] >> ParticlePool.FIXED_SHIFT;
+			particlePreviousX[i] = particles.previousX[i] >> ParticlePool.FIXED_SHIFT;
+			particlePreviousY[i] = particles.previousY[i] >> ParticlePool.FIXED_SHIFT;
+			particlePalette[i] = particles.palette[i];
+			particleFade[i] = particles.getFade(i);
+		}
+
+		this.status = status;
+		this.tick = tick;
+		this.stepNanos = stepNanos;
+	}
+
+	/**
+	 * Returns the number of sprites to draw.
+	 * @return the number of sprites
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the most sprites the snapshot can hold.
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return sprite.length;
+	}
+
+	/**
+	 * Returns the index of the first explosion; the explosions are the last sprites.
+	 * @return the index of the first explosion
+	 */
+	public int getEffectsStart() {
+		return effectsStart;
+	}
+
+	/**
+	 * Returns the sprite of an entity.
+	 * @param i the index of the entity in the snapshot
+	 * @return the {@link rbadia.voidspace.model.Sprite} id
+	 */
+	public int getSprite(int i) {
+		return sprite[i];
+	}
+
+	/**
+	 * Returns the x coordinate to draw an entity at.
+	 * @param i the index of the entity in the snapshot
+	 * @param alpha how far the game is between the previous simulation step (0) and this one (1)
+	 * @return the interpolated x coordinate
+	 */
+	public int getInterpolatedX(int i, float alpha) {
+		return previousX[i] + Math.round((x[i] - previousX[i]) * alpha);
+	}
+
+	/**
+	 * Returns the y coordinate to draw an entity at.
+	 * @param i the index of the entity in the snapshot
+	 * @param alpha how far the game is between the previous simulation step (0) and this one (1)
+	 * @return the interpolated y coordinate
+	 */
+	public int getInterpolatedY(int i, float alpha) {
+		return previousY[i] + Math.round((y[i] - previousY[i]) * alpha);
+	}
+
+	/**
+	 * Returns the number of debris particles to draw.
+	 * @return the number of particles
+	 */
+	public int getParticleCount() {
+		return particleCount;
+	}
+
+	/**
+	 * Returns the palette of a particle.
+	 * @param i the index of the particle in the snapshot
+	 * @return the {@link ParticlePool} palette
+	 */
+	public int getParticlePalette(int i) {
+		return particlePalette[i];
+	}
+
+	/**
+	 * Returns how far a particle has faded.
+	 * @param i the index of the particle in the snapshot
+	 * @return the fade step, from ParticlePool.FADE_STEPS - 1 when it is new to 0
+	 */
+	public int getParticleFade(int i) {
+		return particleFade[i];
+	}
+
+	/**
+	 * Returns the x coordinate to draw a particle at.
+	 * @param i the index of the particle in the snapshot
+	 * @param alpha how far the game is between the previous simulation step (0) and this one (1)
+	 * @return the interpolated x coordinate
+	 */
+	public int getParticleX(int i, float alpha) {
+		return particlePreviousX[i] + Math.round((particleX[i] - particlePreviousX[i]) * alpha);
+	}
+
+	/**
+	 * Returns the y coordinate to draw a particle at.
+	 * @param i the index of the particle in the snapshot
+	 * @param alpha how far the game is between the previous simulation step (0) and this one (1)
+	 * @return the interpolated y coordinate
+	 */
+	public int getParticleY(int i, float alpha) {
+		return particlePreviousY[i] + Math.round((particleY[i] - particlePreviousY[i]) * alpha);
+	}
+
+	/**
+	 * Returns the simulation step the snapshot was taken at.
+	 * @return the tick
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * Returns how far the game is from this step to the next one at a given time, for drawing in
+	 * between them.
+	 * @param nanos the {@link System#nanoTime()} to draw the frame for
+	 * @return the fraction of a step since this one, from 0 to 1
+	 */
+	public float getAlpha(long nanos) {
+		float alpha = (float) (nanos - stepNanos) / GameLoop.STEP_NANOS;
+		return Math.max(0f, Math.min(alpha, 1f));
+	}
+
+	/**
+	 * Returns the game status at the end of the step.
+	 * @return the game status, or null for the empty snapshot the screen starts out with
+	 */
+	public GameStatus.Snapshot getStatus() {
+		return status;
+	}
+}
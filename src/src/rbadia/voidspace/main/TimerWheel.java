@@ -0,0 +1,211 @@
+package rbadia.voidspace.main;
+
+/**
+ * Hashed timer wheel driven by the simulation tick. Timers are kept in a ring of slots, one slot
+ * per tick, wrapping around; a timer due further away than the ring is long just stays in its
+ * slot for more turns. Each tick only the timers of one slot are looked at.
+ * <p>
+ * A timer is an event number and an argument (e.g. an entity id), kept in fixed-size arrays with
+ * a free list, so scheduling and cancelling timers never allocates memory. Timers in a slot fire
+ * in the order they were scheduled, so runs with the same input fire the same timers in the
+ * same order. The wheel is not thread safe: it belongs to the game loop thread.
+ */
+public class TimerWheel {
+	/**
+	 * Receives the timers that are due.
+	 */
+	public interface Listener {
+		/**
+		 * Called when a timer is due. The listener may schedule and cancel timers.
+		 * @param event the event number the timer was scheduled with
+		 * @param arg the argument the timer was scheduled with
+		 */
+		void onTimer(int event, int arg);
+	}
+
+	// a handle is the timer's slot in the arrays, plus the generation of that slot so that
+	// cancelling a timer that already fired doesn't cancel the next one to use the slot; the
+	// generation gets all the bits the index doesn't need, so it takes millions of reuses of a
+	// slot before an old handle matches again
+	private static final int MAX_INDEX_BITS = 20;
+	private final int indexBits;
+	private final int indexMask;
+	private final int generationMask;
+
+	private final int[] slotHeads;
+	private final int[] slotTails;
+	private final int slotMask;
+
+	// the timers, by index; next also links the free list, and free timers have no deadline (-1)
+	private final long[] deadlines;
+	private final int[] events;
+	private final int[] args;
+	private final int[] next;
+	private final int[] previous;
+	private final int[] generations;
+
+	private int freeHead;
+	private int size;
+	private long now;
+
+	// the next timer advance() looks at, kept up to date when a listener cancels it
+	private int cursor = -1;
+
+	/**
+	 * Creates a new timer wheel.
+	 * @param slots the number of slots, rounded up to a power of two; best at about the longest delay
+	 * @param capacity the maximum number of pending timers
+	 */
+	public TimerWheel(int slots, int capacity) {
+		if(capacity > 1 << MAX_INDEX_BITS){
+			throw new IllegalArgumentException("Too many timers.");
+		}
+		indexBits = 32 - Integer.numberOfLeadingZeros(Math.max(capacity - 1, 1));
+		indexMask = (1 << indexBits) - 1;
+		// handles stay positive, -1 means no timer
+		generationMask = (1 << (31 - indexBits)) - 1;
+		int slotCount = Integer.highestOneBit(Math.max(slots, 1) * 2 - 1);
+		slotHeads = new int[slotCount];
+		slotTails = new int[slotCount];
+		slotMask = slotCount - 1;
+		deadlines = new long[capacity];
+		events = new int[capacity];
+		args = new int[capacity];
+		next = new int[capacity];
+		previous = new int[capacity];
+		generations = new int[capacity];
+		clear();
+	}
+
+	/**
+	 * Schedules a timer.
+	 * @param delay the number of ticks until the timer is due, at least 1
+	 * @param event the event number to pass to the listener
+	 * @param arg the argument to pass to the listener
+	 * @return a handle to cancel the timer with, or -1 if the wheel is full
+	 */
+	public int schedule(int delay, int event, int arg) {
+		if(freeHead < 0){
+			return -1;
+		}
+		int i = freeHead;
+		freeHead = next[i];
+		size++;
+
+		deadlines[i] = now + Math.max(delay, 1);
+		events[i] = event;
+		args[i] = arg;
+
+		// append to the slot, so timers in a slot stay in scheduling order
+		int slot = (int) (deadlines[i] & slotMask);
+		next[i] = -1;
+		previous[i] = slotTails[slot];
+		if(slotTails[slot] < 0){
+			slotHeads[slot] = i;
+		}
+		else{
+			next[slotTails[slot]] = i;
+		}
+		slotTails[slot] = i;
+		return (generations[i] << indexBits) | i;
+	}
+
+	/**
+	 * Cancels a timer. Cancelling a timer that already fired (or was cancelled) does nothing.
+	 * @param handle the handle returned by schedule(int, int, int), or -1
+	 * @return if the timer was pending
+	 */
+	public boolean cancel(int handle) {
+		if(handle < 0){
+			return false;
+		}
+		int i = handle & indexMask;
+		if(i >= generations.length || generations[i] != handle >>> indexBits || deadlines[i] < 0){
+			return false;
+		}
+		release(i);
+		return true;
+	}
+
+	/**
+	 * Move on to the next tick, and fire the timers that are due.
+	 * @param listener the listener to pass the due timers to
+	 */
+	public void advance(Listener listener) {
+		now++;
+		int slot = (int) (now & slotMask);
+		cursor = slotHeads[slot];
+		while(cursor >= 0){
+			int i = cursor;
+			cursor = next[i];
+			if(deadlines[i] <= now){
+				int event = events[i];
+				int arg = args[i];
+				release(i);
+				listener.onTimer(event, arg);
+			}
+		}
+	}
+
+	/**
+	 * Cancels all timers.
+	 */
+	public void clear() {
+		for(int s=0; s<slotHeads.length; s++){
+			slotHeads[s] = -1;
+			slotTails[s] = -1;
+		}
+		for(int i=0; i<next.length; i++){
+			next[i] = i + 1 < next.length ? i + 1 : -1;
+			generations[i] = (generations[i] + 1) & generationMask;
+			deadlines[i] = -1;
+		}
+		freeHead = next.length > 0 ? 0 : -1;
+		size = 0;
+		cursor = -1;
+	}
+
+	/**
+	 * Returns the number of pending timers.
+	 * @return the number of pending timers
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of ticks the wheel has advanced.
+	 * @return the current tick
+	 */
+	public long getTick() {
+		return now;
+	}
+
+	/**
+	 * Unlinks a timer from its slot and puts it on the free list.
+	 */
+	private void release(int i) {
+		if(i == cursor){
+			cursor = next[i];
+		}
+		int slot = (int) (deadlines[i] & slotMask);
+		if(previous[i] < 0){
+			slotHeads[slot] = next[i];
+		}
+		else{
+			next[previous[i]] = next[i];
+		}
+		if(next[i] < 0){
+			slotTails[slot] = previous[i];
+		}
+		else{
+			previous[next[i]] = previous[i];
+		}
+		generations[i] = (generations[i] + 1) & generationMask;
+		// not pending any more
+		deadlines[i] = -1;
+		next[i] = freeHead;
+		freeHead = i;
+		size--;
+	}
+}
@@ -0,0 +1,80 @@
+package rbadia.voidspace.main;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands the newest of a stream of values from one thread to another without locks or copying,
+ * e.g. frames from the simulation thread to the render thread. There are three preallocated
+ * buffers: the writer fills the back buffer, the reader reads the front buffer, and publishing
+ * swaps the back buffer with the one in the middle. Neither thread ever waits for the other; the
+ * writer can publish many times between reads (the reader only sees the last one), and the
+ * reader can read the same buffer many times between publishes.
+ * <p>
+ * There may only be one writer thread and one reader thread.
+ * @param <T> the type of the buffers
+ */
+public class TripleBuffer<T> {
+	// set in the middle index when the middle buffer was published after the reader last swapped
+	private static final int FRESH = 4;
+	private static final int INDEX = 3;
+
+	private final Object[] buffers;
+	// the index of the middle buffer, plus the FRESH flag
+	private final AtomicInteger middle;
+	// writer thread
+	private int back;
+	// reader thread
+	private int front;
+
+	/**
+	 * Creates a new triple buffer.
+	 * @param first the buffer the reader starts out with
+	 * @param second the buffer in the middle
+	 * @param third the buffer the writer fills first
+	 */
+	public TripleBuffer(T first, T second, T third) {
+		this.buffers = new Object[] {first, second, third};
+		this.front = 0;
+		this.middle = new AtomicInteger(1);
+		this.back = 2;
+	}
+
+	/**
+	 * Returns the buffer to write the next value to. Writer thread only.
+	 * @return the back buffer
+	 */
+	@SuppressWarnings("unchecked")
+	public T getBack() {
+		return (T) buffers[back];
+	}
+
+	/**
+	 * Publishes the back buffer as the newest value and takes over another buffer to write the
+	 * next one to. Writer thread only.
+	 */
+	public void publish() {
+		back = middle.getAndSet(back | FRESH) & INDEX;
+	}
+
+	/**
+	 * Takes over the newest published value, if there is one the reader hasn't seen. Reader
+	 * thread only.
+	 * @return if the front buffer changed
+	 */
+	public boolean update() {
+		if((middle.get() & FRESH) == 0){
+			return false;
+		}
+		front = middle.getAndSet(front) & INDEX;
+		return true;
+	}
+
+	/**
+	 * Returns the buffer being read: the newest value as of the last update(). Reader thread only.
+	 * @return the front buffer
+	 */
+	@SuppressWarnings("unchecked")
+	public T getFront() {
+		return (T) buffers[front];
+	}
+}
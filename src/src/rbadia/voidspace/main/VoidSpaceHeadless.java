@@ -0,0 +1,81 @@
+package rbadia.voidspace.main;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import rbadia.voidspace.sounds.SoundManager;
+
+/**
+ * Runs the game world simulation without a display, as fast as possible, and reports how many
+ * ticks per second it managed. Meant for automated soak runs on machines without a screen.
+ * <p>
+ * Usage: <code>java rbadia.voidspace.main.VoidSpaceHeadless [ticks] [seed] [checksumFile] [waveSize]</code>
+ * <p>
+ * When a checksum file is given (use "-" for none), the state checksum of every tick is written
+ * to it (one "tick checksum" pair per line), so two runs can be compared with a plain diff.
+ * The wave size is the number of asteroids and of enemy ships each game starts with.
+ */
+public class VoidSpaceHeadless {
+	private static final int DEFAULT_TICKS = 100000;
+	private static final long DEFAULT_SEED = 0;
+	private static final int WORLD_WIDTH = 500;
+	private static final int WORLD_HEIGHT = 400;
+	// fire a bullet every 12 ticks, i.e. 5 bullets per second
+	private static final int FIRE_INTERVAL = GameLogic.TICKS_PER_SECOND / 5;
+
+	/**
+	 * @param args the number of ticks to run, the random seed, the checksum file and the wave size
+	 * (all optional)
+	 * @throws IOException if the checksum file can't be written
+	 */
+	public static void main(String[] args) throws IOException {
+		System.setProperty("java.awt.headless", "true");
+		int ticks = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TICKS;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SEED;
+		PrintWriter checksumOut = args.length > 2 && !args[2].equals("-") ?
+				new PrintWriter(new BufferedWriter(new FileWriter(args[2]))) : null;
+
+		GameLogic gameLogic = new GameLogic(WORLD_WIDTH, WORLD_HEIGHT, new SoundManager(false), seed);
+		if(args.length > 3){
+			int waveSize = Integer.parseInt(args[3]);
+			gameLogic.setWave(waveSize, waveSize, 1);
+		}
+		GameStatus status = gameLogic.getStatus();
+
+		long gamesPlayed = 0;
+		long startTime = System.nanoTime();
+		for(int tick=0; tick<ticks; tick++){
+			if(!status.isGameStarted() && !status.isGameStarting() && !status.isGameOver()){
+				// on the title screen, start a new game right away
+				gameLogic.newGame();
+				gamesPlayed++;
+			}
+
+			gameLogic.checkConditions();
+			gameLogic.updateWorld();
+
+			if(status.isGameStarted() && !status.isNewShip() && tick % FIRE_INTERVAL == 0){
+				gameLogic.fireBullet();
+			}
+
+			if(checksumOut != null){
+				checksumOut.print(gameLogic.getTick());
+				checksumOut.print(' ');
+				checksumOut.println(Long.toHexString(gameLogic.getChecksum()));
+			}
+		}
+		long elapsedNanos = System.nanoTime() - startTime;
+
+		if(checksumOut != null){
+			checksumOut.close();
+		}
+
+		double seconds = elapsedNanos / 1e9;
+		System.out.printf("%d ticks in %.3f s (%.0f ticks/s), %d games, final checksum %x%n",
+				ticks, seconds, ticks / seconds, gamesPlayed, gameLogic.getChecksum());
+		System.out.printf("%.1f collision pairs tested per tick%n",
+				(double) gameLogic.getCollisionGrid().getTotalPairsTested() / ticks);
+	}
+}
@@ -17,6 +17,16 @@ public class VoidSpaceMain {
 		
 		// get game screen
         GameScreen gameScreen = frame.getGameScreen();
+
+        // draw frames straight to the screen unless told otherwise (-Dvoidspace.activeRendering=false)
+        gameScreen.setActiveRendering(Boolean.parseBoolean(System.getProperty("voidspace.activeRendering", "true")));
+
+        // draw sprites straight into the frame's pixels, for scenes with thousands of them
+        // (-Dvoidspace.softwareSprites=true)
+        gameScreen.setSoftwareSprites(Boolean.getBoolean("voidspace.softwareSprites"));
+
+        // only redraw what moves, for slow machines (-Dvoidspace.dirtyRendering=true)
+        gameScreen.setDirtyRendering(Boolean.getBoolean("voidspace.dirtyRendering"));
 		
 		// init game logic handler
 		GameLogic gameLogic = new GameLogic(gameScreen);
@@ -28,11 +38,17 @@ public class VoidSpaceMain {
         InputHandler inputHandler = new InputHandler(gameLogic);
         frame.addKeyListener(inputHandler);
         
+        // fill the display, with the game scaled up to fit (-Dvoidspace.maximized=true)
+        if(Boolean.getBoolean("voidspace.maximized")){
+        	frame.setExtendedState(JFrame.MAXIMIZED_BOTH);
+        }
+
         // show main frame
 		frame.setVisible(true);
 		
-		// init main game loop
-		new Thread(new GameLoop(gameScreen, gameLogic, inputHandler)).start();
+		// init main game loop, and draw on another thread so drawing doesn't slow down the game
+		new Thread(new GameLoop(gameLogic, inputHandler), "simulation").start();
+		new Thread(new RenderLoop(gameScreen, gameLogic), "render").start();
 	}
 
 
@@ -1,59 +1,37 @@
 package rbadia.voidspace.model;
 
-import java.awt.Rectangle;
 import java.util.Random;
 
-import rbadia.voidspace.main.GameScreen;
-
-public class Asteroid extends Rectangle {
-	private static final long serialVersionUID = 1L;
-	
+/**
+ * Asteroids falling down the screen. Asteroids only exist as rows of an {@link EntityStore}.
+ */
+public final class Asteroid {
 	public static final int DEFAULT_SPEED = 5;
-	
-	private int asteroidWidth = 32;
-	private int asteroidHeight = 32;
-	private int speed;
+	public static final int WIDTH = 32;
+	public static final int HEIGHT = 32;
+	public static final int HEALTH = 1;
+	public static final int POINTS = 100;
 
-	private Random rand = new Random();
-	
-	/**
-	 * Crates a new asteroid at a random x location at the top of the screen 
-	 * @param screen the game screen
-	 */
-	public Asteroid(GameScreen screen){
-		this.setLocation(rand.nextInt(screen.getWidth() - asteroidWidth), 0);
-		this.setSize(asteroidWidth, asteroidHeight);
-		speed=rand.nextInt(DEFAULT_SPEED);
-	}
-	
-	public int getAsteroidWidth() {
-		return asteroidWidth;
-	}
-	public int getAsteroidHeight() {
-		return asteroidHeight;
+	private Asteroid() {
 	}
 
 	/**
-	 * Returns the current asteroid speed
-	 * @return the current asteroid speed
-	 */
-	public int getSpeed() {
-		return speed;
-	}
-	
-	/**
-	 * Set the current asteroid speed
-	 * @param speed the speed to set
-	 */
-	public void setSpeed(int speed) {
-		this.speed = speed;
-	}
-	
-	/**
-	 * Returns the default asteroid speed.
-	 * @return the default asteroid speed
+	 * Adds a new asteroid at a random x location at the top of the screen, with a random speed.
+	 * @param store the entity store to add the asteroid to, with all of the enemy components
+	 * @param screenWidth the width of the game screen
+	 * @param rand the random number generator to pick the location and speed with
+	 * @return the id of the new asteroid, or -1 if the store is full
 	 */
-	public int getDefaultSpeed(){
-		return DEFAULT_SPEED;
+	public static int spawn(EntityStore store, int screenWidth, Random rand) {
+		int x = rand.nextInt(screenWidth - WIDTH);
+		int speed = rand.nextInt(DEFAULT_SPEED);
+		int id = store.spawn(EntityStore.ASTEROID, x, 0, WIDTH, HEIGHT, 0, speed);
+		if(id >= 0){
+			int index = store.indexOf(id);
+			store.sprite[index] = Sprite.ASTEROID;
+			store.health[index] = HEALTH;
+			store.score[index] = POINTS;
+		}
+		return id;
 	}
 }
@@ -1,49 +1,30 @@
 package rbadia.voidspace.model;
-import java.awt.Rectangle;
 
 /**
- * Represents a bullet fired by a ship.
+ * Bullets fired by a ship. Bullets are short-lived and numerous, so they have no handle objects:
+ * they only exist as rows of a bullet {@link EntityStore}.
  */
-public class Bullet extends Rectangle {
-	private static final long serialVersionUID = 1L;
-	
-	private int bulletWidth = 8;
-	private int bulletHeight = 8;
-	private int speed = 12;
+public final class Bullet {
+	public static final int WIDTH = 8;
+	public static final int HEIGHT = 8;
+	public static final int SPEED = 12;
 
-	/**
-	 * Creates a new bullet above the ship, centered on it
-	 * @param ship
-	 */
-	public Bullet(Ship ship) {
-		this.setLocation(ship.x + ship.width/2 - bulletWidth/2,
-				ship.y - bulletHeight);
-		this.setSize(bulletWidth, bulletHeight);
-	}
-	
-	/**
-	 * Creates a new bullet above the enemy ship, centered on it
-	 * @param enemyShip
-	 */
-	public Bullet(EnemyShip enemyShip) {
-		this.setLocation(enemyShip.x + enemyShip.width/2 - bulletWidth/2,
-				enemyShip.y - bulletHeight);
-		this.setSize(bulletWidth, bulletHeight);
-	}
-
-	/**
-	 * Return the bullet's speed.
-	 * @return the bullet's speed.
-	 */
-	public int getSpeed() {
-		return speed;
+	private Bullet() {
 	}
 
 	/**
-	 * Set the bullet's speed
-	 * @param speed the speed to set
+	 * Adds a new bullet above the ship, centered on it, moving up.
+	 * @param bullets the bullet store
+	 * @param ship the ship that fires the bullet
+	 * @return the id of the new bullet, or -1 if the store is full
 	 */
-	public void setSpeed(int speed) {
-		this.speed = speed;
+	public static int fire(EntityStore bullets, Ship ship) {
+		int id = bullets.spawn(EntityStore.BULLET,
+				ship.getX() + ship.getWidth()/2 - WIDTH/2, ship.getY() - HEIGHT,
+				WIDTH, HEIGHT, 0, -SPEED);
+		if(id >= 0){
+			bullets.sprite[bullets.indexOf(id)] = Sprite.BULLET;
+		}
+		return id;
 	}
 }
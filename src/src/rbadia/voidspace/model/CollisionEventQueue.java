@@ -0,0 +1,106 @@
+package rbadia.voidspace.model;
+
+/**
+ * Fixed-size ring buffer of collision events. Collision detection only adds events to the queue;
+ * their effects on the game (score, lives, explosions, sounds) are applied afterwards, all at
+ * once. An event is just its kind and the index of the entity that was hit, so adding and
+ * removing events never allocates memory.
+ */
+public class CollisionEventQueue {
+	// event kinds
+	/** A bullet hit an asteroid or enemy ship. */
+	public static final int BULLET_HIT = 0;
+	/** The ship ran into an asteroid or enemy ship. */
+	public static final int SHIP_HIT = 1;
+
+	private final int[] kinds;
+	private final int[] indices;
+	private final int mask;
+
+	// head is the next event to read, tail the next free slot; both only ever grow
+	private long head;
+	private long tail;
+	private long droppedCount;
+
+	/**
+	 * Creates a new event queue.
+	 * @param capacity the maximum number of queued events, rounded up to a power of two
+	 */
+	public CollisionEventQueue(int capacity) {
+		int size = Integer.highestOneBit(Math.max(capacity, 1) * 2 - 1);
+		kinds = new int[size];
+		indices = new int[size];
+		mask = size - 1;
+	}
+
+	/**
+	 * Adds an event at the end of the queue.
+	 * @param kind the event kind
+	 * @param entityIndex the index of the entity that was hit
+	 * @return if the event was added, false if the queue is full
+	 */
+	public boolean add(int kind, int entityIndex) {
+		if(tail - head == kinds.length){
+			droppedCount++;
+			return false;
+		}
+		int slot = (int) (tail++ & mask);
+		kinds[slot] = kind;
+		indices[slot] = entityIndex;
+		return true;
+	}
+
+	/**
+	 * Indicates if there are no events to read.
+	 * @return if the queue is empty
+	 */
+	public boolean isEmpty() {
+		return head == tail;
+	}
+
+	/**
+	 * Returns the kind of the first event in the queue.
+	 * @return the event kind
+	 */
+	public int peekKind() {
+		return kinds[(int) (head & mask)];
+	}
+
+	/**
+	 * Returns the entity index of the first event in the queue.
+	 * @return the index of the entity that was hit
+	 */
+	public int peekIndex() {
+		return indices[(int) (head & mask)];
+	}
+
+	/**
+	 * Removes the first event from the queue.
+	 */
+	public void remove() {
+		head++;
+	}
+
+	/**
+	 * Removes all events.
+	 */
+	public void clear() {
+		head = tail;
+	}
+
+	/**
+	 * Returns the number of queued events.
+	 * @return the number of queued events
+	 */
+	public int size() {
+		return (int) (tail - head);
+	}
+
+	/**
+	 * Returns the number of events that were dropped because the queue was full.
+	 * @return the number of dropped events
+	 */
+	public long getDroppedCount() {
+		return droppedCount;
+	}
+}
@@ -0,0 +1,24 @@
+package rbadia.voidspace.model;
+
+/**
+ * The components an entity can have, as bit flags. Every {@link EntityStore} holds one
+ * archetype: entities that all have the same combination of components, each component packed
+ * in its own columns. Systems pick the stores whose archetype has the components they need.
+ */
+public final class Components {
+	/** Location, and the location at the start of the step (x, y, previousX, previousY). */
+	public static final int POSITION = 1;
+	/** Distance moved per tick (vx, vy). */
+	public static final int VELOCITY = 2;
+	/** Size, for collisions (width, height). */
+	public static final int BOUNDS = 4;
+	/** Image to draw (sprite), one of the {@link Sprite} ids. */
+	public static final int SPRITE = 8;
+	/** Hits left before the entity is destroyed (health). */
+	public static final int HEALTH = 16;
+	/** Points earned for destroying the entity (score). */
+	public static final int SCORE = 32;
+
+	private Components() {
+	}
+}
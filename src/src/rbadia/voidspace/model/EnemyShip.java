@@ -1,72 +1,42 @@
 package rbadia.voidspace.model;
 
-import java.awt.Rectangle;
 import java.util.Random;
 
-import rbadia.voidspace.main.GameScreen;
-
 /**
- * Represents a ship/space craft.
- *
+ * Enemy ships (and boss ships) flying down the screen at an angle. Enemy ships only exist as
+ * rows of an {@link EntityStore}.
  */
-public class EnemyShip extends Rectangle {
-	private static final long serialVersionUID = 1L;
-
+public final class EnemyShip {
 	public static final int DEFAULT_SPEED = 2;
+	public static final int WIDTH = 25;
+	public static final int HEIGHT = 25;
+	public static final int HEALTH = 1;
+	public static final int POINTS = 250;
 
-	private int enemyShipWidth = 25;
-	private int enemyShipHeight = 25;
-	private int speed = DEFAULT_SPEED;
-	private Random rand = new Random();
-
-
-	/**
-	 * Creates a new enemy ship at the default initial location. 
-	 * @param screen the game screen
-	 */
-	public EnemyShip(GameScreen screen){
-		this.setLocation(rand.nextInt(screen.getWidth() - enemyShipWidth), 0);
-		this.setSize(enemyShipWidth, enemyShipHeight);		
-	}
-
-	/**
-	 * Get the default ship width
-	 * @return the default ship width
-	 */
-	public int getEnemyShipWidth() {
-		return enemyShipWidth;
+	private EnemyShip() {
 	}
 
 	/**
-	 * Get the default ship height
-	 * @return the default ship height
+	 * Adds a new enemy ship at a random x location at the top of the screen.
+	 * @param store the entity store to add the ship to, with all of the enemy components
+	 * @param type the entity type (enemy ship or boss ship)
+	 * @param screenWidth the width of the game screen
+	 * @param rand the random number generator to pick the location with
+	 * @param direction -1 to fly to the left, 1 to fly to the right
+	 * @param speedMultiplier how much faster the ship flies down than sideways
+	 * @return the id of the new ship, or -1 if the store is full
 	 */
-	public int getEnemyShipHeight() {
-		return enemyShipHeight;
+	public static int spawn(EntityStore store, int type, int screenWidth, Random rand,
+			int direction, int speedMultiplier) {
+		int x = rand.nextInt(screenWidth - WIDTH);
+		int id = store.spawn(type, x, 0, WIDTH, HEIGHT,
+				direction * DEFAULT_SPEED, DEFAULT_SPEED * speedMultiplier);
+		if(id >= 0){
+			int index = store.indexOf(id);
+			store.sprite[index] = type == EntityStore.BOSS_SHIP ? Sprite.BOSS_SHIP : Sprite.ENEMY_SHIP;
+			store.health[index] = HEALTH;
+			store.score[index] = POINTS;
+		}
+		return id;
 	}
-
-	/**
-	 * Returns the current ship speed
-	 * @return the current ship speed
-	 */
-	public int getSpeed() {
-		return speed;
-	}
-
-	/**
-	 * Set the current ship speed
-	 * @param speed the speed to set
-	 */
-	public void setSpeed(int speed) {
-		this.speed = speed;
-	}
-
-	/**
-	 * Returns the default ship speed.
-	 * @return the default ship speed
-	 */
-	public int getDefaultSpeed(){
-		return DEFAULT_SPEED;
-	}
-
 }
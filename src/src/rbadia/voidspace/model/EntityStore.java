@@ -0,0 +1,333 @@
+package rbadia.voidspace.model;
+
+/**
+ * Struct-of-arrays storage for game entities. Every property is kept in its own primitive array
+ * (a "column"), and the live entities are packed at the front of the columns, from index 0 to
+ * size() - 1, so loops over all entities walk contiguous memory.
+ * <p>
+ * A store holds a single archetype, i.e. a combination of {@link Components}. Only the columns
+ * of those components are allocated; the others are null. Every archetype has a position, and
+ * every entity has a type, flags and a timer.
+ * <p>
+ * Removing an entity moves the last live entity into its index. Because of that, an entity is
+ * identified from the outside by a stable id, which indexOf(int) turns into its current index.
+ * Ids of removed entities are reused by later spawns. The store has a fixed capacity and never
+ * allocates memory after it is created.
+ */
+public class EntityStore {
+	// entity types
+	public static final int SHIP = 0;
+	public static final int ASTEROID = 1;
+	public static final int ENEMY_SHIP = 2;
+	public static final int BOSS_SHIP = 3;
+	public static final int BULLET = 4;
+	public static final int ASTEROID_EXPLOSION = 5;
+	public static final int SHIP_EXPLOSION = 6;
+
+	// entity flags
+	/** The entity was destroyed and waits off screen until it is respawned. */
+	public static final int FLAG_RESPAWNING = 1;
+	/** The entity was hit this tick; the hit is waiting to be resolved. */
+	public static final int FLAG_HIT = 2;
+	/** The entity left the screen (or finished respawning) this tick and must be placed or removed. */
+	public static final int FLAG_OUT = 4;
+
+	// the columns, indexed from 0 to size() - 1; tight loops may read and write them directly
+	public final int[] x;
+	public final int[] y;
+	public final int[] width;
+	public final int[] height;
+	public final int[] vx;
+	public final int[] vy;
+	public final int[] sprite;
+	public final int[] health;
+	public final int[] score;
+	public final int[] type;
+	public final int[] flags;
+	// countdown in ticks, e.g. the ticks an explosion has left
+	public final int[] timer;
+	// location at the start of the current simulation step, for drawing in between steps
+	public final int[] previousX;
+	public final int[] previousY;
+
+	// ids[index] is the id of the entity at an index; indices[id] is the index of an id
+	private final int[] ids;
+	private final int[] indices;
+
+	private final int components;
+	private int size;
+	private int peakSize;
+	private long droppedCount;
+
+	/**
+	 * Creates a new entity store, allocating the columns of its components up front.
+	 * @param components the components of the archetype, {@link Components} flags
+	 * @param capacity the maximum number of live entities
+	 */
+	public EntityStore(int components, int capacity) {
+		if((components & Components.POSITION) == 0){
+			throw new IllegalArgumentException("Every archetype needs a position.");
+		}
+		this.components = components;
+		x = new int[capacity];
+		y = new int[capacity];
+		previousX = new int[capacity];
+		previousY = new int[capacity];
+		width = column(components, Components.BOUNDS, capacity);
+		height = column(components, Components.BOUNDS, capacity);
+		vx = column(components, Components.VELOCITY, capacity);
+		vy = column(components, Components.VELOCITY, capacity);
+		sprite = column(components, Components.SPRITE, capacity);
+		health = column(components, Components.HEALTH, capacity);
+		score = column(components, Components.SCORE, capacity);
+		type = new int[capacity];
+		flags = new int[capacity];
+		timer = new int[capacity];
+		ids = new int[capacity];
+		indices = new int[capacity];
+		for(int i=0; i<capacity; i++){
+			ids[i] = i;
+			indices[i] = i;
+		}
+	}
+
+	private static int[] column(int components, int component, int capacity) {
+		return (components & component) != 0 ? new int[capacity] : null;
+	}
+
+	/**
+	 * Indicates if the store's archetype has all of the given components.
+	 * @param required {@link Components} flags
+	 * @return if the archetype has the components
+	 */
+	public boolean has(int required) {
+		return (components & required) == required;
+	}
+
+	/**
+	 * Returns the components of the store's archetype.
+	 * @return the {@link Components} flags
+	 */
+	public int getComponents() {
+		return components;
+	}
+
+	/**
+	 * Adds a new entity. Values for components the archetype doesn't have are ignored, and the
+	 * sprite, health and score start at 0.
+	 * @param entityType the entity type
+	 * @param entityX the x coordinate
+	 * @param entityY the y coordinate
+	 * @param entityWidth the width
+	 * @param entityHeight the height
+	 * @param velocityX the horizontal speed
+	 * @param velocityY the vertical speed
+	 * @return the id of the new entity, or -1 if the store is full
+	 */
+	public int spawn(int entityType, int entityX, int entityY, int entityWidth, int entityHeight,
+			int velocityX, int velocityY) {
+		if(size == ids.length){
+			droppedCount++;
+			return -1;
+		}
+		int index = size++;
+		x[index] = entityX;
+		y[index] = entityY;
+		previousX[index] = entityX;
+		previousY[index] = entityY;
+		if(width != null){
+			width[index] = entityWidth;
+			height[index] = entityHeight;
+		}
+		if(vx != null){
+			vx[index] = velocityX;
+			vy[index] = velocityY;
+		}
+		if(sprite != null){
+			sprite[index] = 0;
+		}
+		if(health != null){
+			health[index] = 0;
+		}
+		if(score != null){
+			score[index] = 0;
+		}
+		type[index] = entityType;
+		flags[index] = 0;
+		timer[index] = 0;
+		if(size > peakSize){
+			peakSize = size;
+		}
+		return ids[index];
+	}
+
+	/**
+	 * Removes an entity.
+	 * @param id the id of the entity
+	 */
+	public void despawn(int id) {
+		removeAt(indices[id]);
+	}
+
+	/**
+	 * Removes the entity at an index, moving the last live entity into its place. Loops that
+	 * remove entities while iterating should look at the same index again.
+	 * @param index the index of the entity to remove
+	 */
+	public void removeAt(int index) {
+		int last = --size;
+		if(index != last){
+			x[index] = x[last];
+			y[index] = y[last];
+			move(width, index, last);
+			move(height, index, last);
+			move(vx, index, last);
+			move(vy, index, last);
+			move(sprite, index, last);
+			move(health, index, last);
+			move(score, index, last);
+			type[index] = type[last];
+			flags[index] = flags[last];
+			timer[index] = timer[last];
+			previousX[index] = previousX[last];
+			previousY[index] = previousY[last];
+
+			int removedId = ids[index];
+			int movedId = ids[last];
+			ids[index] = movedId;
+			indices[movedId] = index;
+			// keep the removed id past the live entities, to be reused
+			ids[last] = removedId;
+			indices[removedId] = last;
+		}
+	}
+
+	private static void move(int[] column, int index, int last) {
+		if(column != null){
+			column[index] = column[last];
+		}
+	}
+
+	/**
+	 * Removes all entities.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Returns the current index of an entity.
+	 * @param id the id of the entity
+	 * @return the index of the entity
+	 */
+	public int indexOf(int id) {
+		return indices[id];
+	}
+
+	/**
+	 * Returns the id of the entity at an index.
+	 * @param index the index
+	 * @return the id of the entity
+	 */
+	public int idAt(int index) {
+		return ids[index];
+	}
+
+	/**
+	 * Indicates if an id belongs to a live entity.
+	 * @param id the id
+	 * @return if the entity is live
+	 */
+	public boolean isAlive(int id) {
+		return id >= 0 && indices[id] < size;
+	}
+
+	/**
+	 * Moves an entity to a location, without interpolating from the old one when drawing
+	 * (e.g. when it is respawned).
+	 * @param index the index of the entity
+	 * @param entityX the new x coordinate
+	 * @param entityY the new y coordinate
+	 */
+	public void setLocation(int index, int entityX, int entityY) {
+		x[index] = entityX;
+		y[index] = entityY;
+		previousX[index] = entityX;
+		previousY[index] = entityY;
+	}
+
+	/**
+	 * Moves an entity by the given amounts.
+	 * @param index the index of the entity
+	 * @param dx the horizontal distance
+	 * @param dy the vertical distance
+	 */
+	public void translate(int index, int dx, int dy) {
+		x[index] += dx;
+		y[index] += dy;
+	}
+
+	/**
+	 * Remember the location of every entity as its previous location. Should be called once at
+	 * the start of every simulation step.
+	 */
+	public void savePositions() {
+		System.arraycopy(x, 0, previousX, 0, size);
+		System.arraycopy(y, 0, previousY, 0, size);
+	}
+
+	/**
+	 * Indicates if the bounds of two entities overlap, with the same rules as
+	 * {@link java.awt.Rectangle#intersects(java.awt.Rectangle)}. Both stores need bounds.
+	 * @param index the index of the entity in this store
+	 * @param other the store of the other entity (may be this store)
+	 * @param otherIndex the index of the other entity
+	 * @return if the entities overlap
+	 */
+	public boolean intersects(int index, EntityStore other, int otherIndex) {
+		int w = width[index];
+		int h = height[index];
+		int ow = other.width[otherIndex];
+		int oh = other.height[otherIndex];
+		if(w <= 0 || h <= 0 || ow <= 0 || oh <= 0){
+			return false;
+		}
+		int ax = x[index];
+		int ay = y[index];
+		int bx = other.x[otherIndex];
+		int by = other.y[otherIndex];
+		return bx < ax + w && by < ay + h && ax < bx + ow && ay < by + oh;
+	}
+
+	/**
+	 * Returns the number of live entities.
+	 * @return the number of live entities
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the maximum number of live entities.
+	 * @return the store capacity
+	 */
+	public int getCapacity() {
+		return ids.length;
+	}
+
+	/**
+	 * Returns the largest number of entities that were live at the same time.
+	 * @return the peak number of live entities
+	 */
+	public int getPeakSize() {
+		return peakSize;
+	}
+
+	/**
+	 * Returns the number of spawns that were dropped because the store was full.
+	 * @return the number of dropped spawns
+	 */
+	public long getDroppedCount() {
+		return droppedCount;
+	}
+}
@@ -0,0 +1,102 @@
+package rbadia.voidspace.model;
+
+/**
+ * Base class for game objects that the rest of the game holds on to (i.e. the player's ship).
+ * A game object is only a thin handle: its location, size and speed live in an {@link EntityStore}.
+ */
+public abstract class GameObject {
+	protected final EntityStore store;
+	protected final int id;
+
+	/**
+	 * Adds a new entity to the store, at the top left corner.
+	 * @param store the entity store
+	 * @param type the entity type
+	 * @param width the entity width
+	 * @param height the entity height
+	 */
+	protected GameObject(EntityStore store, int type, int width, int height) {
+		this.store = store;
+		this.id = store.spawn(type, 0, 0, width, height, 0, 0);
+		if(id < 0){
+			throw new IllegalStateException("The entity store is full.");
+		}
+	}
+
+	/**
+	 * Returns the id of the entity in its store.
+	 * @return the entity id
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the current index of the entity in its store.
+	 * @return the entity index
+	 */
+	public int getIndex() {
+		return store.indexOf(id);
+	}
+
+	public int getX() {
+		return store.x[store.indexOf(id)];
+	}
+
+	public int getY() {
+		return store.y[store.indexOf(id)];
+	}
+
+	public int getWidth() {
+		return store.width[store.indexOf(id)];
+	}
+
+	public int getHeight() {
+		return store.height[store.indexOf(id)];
+	}
+
+	/**
+	 * Moves the object to the specified location without interpolating from the old one
+	 * (e.g. when the object is respawned).
+	 * @param x the new x coordinate
+	 * @param y the new y coordinate
+	 */
+	public void setLocation(int x, int y) {
+		store.setLocation(store.indexOf(id), x, y);
+	}
+
+	/**
+	 * Moves the object by the given amounts.
+	 * @param dx the horizontal distance
+	 * @param dy the vertical distance
+	 */
+	public void translate(int dx, int dy) {
+		store.translate(store.indexOf(id), dx, dy);
+	}
+
+	/**
+	 * Indicates if this object overlaps another one.
+	 * @param other the other object
+	 * @return if the objects overlap
+	 */
+	public boolean intersects(GameObject other) {
+		return store.intersects(store.indexOf(id), other.store, other.store.indexOf(other.id));
+	}
+
+	/**
+	 * Indicates if this object overlaps an entity of a store (e.g. a bullet).
+	 * @param other the store of the entity
+	 * @param otherIndex the index of the entity
+	 * @return if they overlap
+	 */
+	public boolean intersects(EntityStore other, int otherIndex) {
+		return store.intersects(store.indexOf(id), other, otherIndex);
+	}
+
+	/**
+	 * Removes the object from its store. The handle must not be used afterwards.
+	 */
+	public void despawn() {
+		store.despawn(id);
+	}
+}
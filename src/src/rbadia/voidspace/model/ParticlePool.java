@@ -0,0 +1,202 @@
+package rbadia.voidspace.model;
+
+/**
+ * Struct-of-arrays storage for debris particles, the sparks and rocks flying off an explosion.
+ * Like an {@link EntityStore}, every property is a primitive column and the live particles are
+ * packed at the front, so hundreds of them are updated in one dense loop; the pool has a fixed
+ * capacity and never allocates memory after it is created. Emitting more particles than fit
+ * drops the extra ones.
+ * <p>
+ * Locations and velocities are fixed point, in 1/256ths of a pixel, so slow particles still move
+ * smoothly. Particles live for a number of ticks and slow down as they go.
+ * <p>
+ * Particles are only for show and don't affect the game, so they take their random numbers from
+ * a generator of their own: emitting them leaves the game's random number stream alone.
+ */
+public class ParticlePool {
+	/** Bits of the fixed point fractions of locations and velocities. */
+	public static final int FIXED_SHIFT = 8;
+
+	// palettes, the colors a particle fades through
+	public static final int ROCK = 0;
+	public static final int FIRE = 1;
+	public static final int PALETTE_COUNT = 2;
+
+	/** Number of steps a particle fades through, from its last tick (0) to its first. */
+	public static final int FADE_STEPS = 8;
+
+	// directions to fly off in, 1 << FIXED_SHIFT long
+	private static final int DIRECTIONS = 64;
+	private static final int[] DIRECTION_X = new int[DIRECTIONS];
+	private static final int[] DIRECTION_Y = new int[DIRECTIONS];
+	static{
+		for(int i=0; i<DIRECTIONS; i++){
+			double angle = 2 * Math.PI * i / DIRECTIONS;
+			DIRECTION_X[i] = (int) Math.round(Math.cos(angle) * (1 << FIXED_SHIFT));
+			DIRECTION_Y[i] = (int) Math.round(Math.sin(angle) * (1 << FIXED_SHIFT));
+		}
+	}
+
+	// the columns, indexed from 0 to size() - 1
+	public final int[] x;
+	public final int[] y;
+	public final int[] previousX;
+	public final int[] previousY;
+	public final int[] vx;
+	public final int[] vy;
+	public final int[] palette;
+	// ticks left, out of the ticks the particle lives for
+	public final int[] life;
+	public final int[] lifetime;
+
+	private int size;
+	private int peakSize;
+	private long droppedCount;
+	private int randomState;
+
+	/**
+	 * Creates a new, empty particle pool, allocating its columns up front.
+	 * @param capacity the maximum number of live particles
+	 * @param seed the seed of the particles' own random numbers
+	 */
+	public ParticlePool(int capacity, int seed) {
+		x = new int[capacity];
+		y = new int[capacity];
+		previousX = new int[capacity];
+		previousY = new int[capacity];
+		vx = new int[capacity];
+		vy = new int[capacity];
+		palette = new int[capacity];
+		life = new int[capacity];
+		lifetime = new int[capacity];
+		// xorshift state must not be 0
+		randomState = seed != 0 ? seed : 1;
+	}
+
+	/**
+	 * Emits a burst of particles flying off a point in random directions.
+	 * @param centerX the x coordinate of the point, in pixels
+	 * @param centerY the y coordinate of the point, in pixels
+	 * @param count the number of particles
+	 * @param speed the fastest a particle flies off, in pixels per tick (the slowest is half that)
+	 * @param ticks the longest a particle lives (the shortest is half that)
+	 * @param paletteId the palette the particles fade through
+	 * @return the number of particles emitted; less than count if the pool is full
+	 */
+	public int emit(int centerX, int centerY, int count, int speed, int ticks, int paletteId) {
+		int emitted = Math.min(count, x.length - size);
+		droppedCount += count - emitted;
+		int px = centerX << FIXED_SHIFT;
+		int py = centerY << FIXED_SHIFT;
+		for(int k=0; k<emitted; k++){
+			int i = size++;
+			int direction = nextRandom() & (DIRECTIONS - 1);
+			// half to full speed and lifetime, in 1/32nd steps
+			int velocity = speed * (16 + (nextRandom() & 15));
+			x[i] = px;
+			y[i] = py;
+			previousX[i] = px;
+			previousY[i] = py;
+			vx[i] = DIRECTION_X[direction] * velocity / 32;
+			vy[i] = DIRECTION_Y[direction] * velocity / 32;
+			palette[i] = paletteId;
+			lifetime[i] = Math.max(ticks * (16 + (nextRandom() & 15)) / 32, 1);
+			life[i] = lifetime[i];
+		}
+		if(size > peakSize){
+			peakSize = size;
+		}
+		return emitted;
+	}
+
+	/**
+	 * Moves every particle one tick on, slowing it down, and removes the ones whose time is over.
+	 */
+	public void update() {
+		for(int i=0; i<size; i++){
+			if(--life[i] <= 0){
+				// the last particle takes its place, so look at this index again
+				removeAt(i);
+				i--;
+				continue;
+			}
+			previousX[i] = x[i];
+			previousY[i] = y[i];
+			x[i] += vx[i];
+			y[i] += vy[i];
+			vx[i] -= vx[i] >> 4;
+			vy[i] -= vy[i] >> 4;
+		}
+	}
+
+	private void removeAt(int i) {
+		int last = --size;
+		x[i] = x[last];
+		y[i] = y[last];
+		previousX[i] = previousX[last];
+		previousY[i] = previousY[last];
+		vx[i] = vx[last];
+		vy[i] = vy[last];
+		palette[i] = palette[last];
+		life[i] = life[last];
+		lifetime[i] = lifetime[last];
+	}
+
+	/**
+	 * Returns how far a particle has faded.
+	 * @param i the index of the particle
+	 * @return the fade step, from FADE_STEPS - 1 when it is new to 0 on its last tick
+	 */
+	public int getFade(int i) {
+		return (life[i] * FADE_STEPS - 1) / lifetime[i];
+	}
+
+	/**
+	 * Removes all particles.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of live particles.
+	 * @return the number of live particles
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the maximum number of live particles.
+	 * @return the pool capacity
+	 */
+	public int getCapacity() {
+		return x.length;
+	}
+
+	/**
+	 * Returns the largest number of particles that were live at the same time.
+	 * @return the peak number of live particles
+	 */
+	public int getPeakSize() {
+		return peakSize;
+	}
+
+	/**
+	 * Returns the number of particles that were dropped because the pool was full.
+	 * @return the number of dropped particles
+	 */
+	public long getDroppedCount() {
+		return droppedCount;
+	}
+
+	private int nextRandom() {
+		// xorshift32
+		int r = randomState;
+		r ^= r << 13;
+		r ^= r >>> 17;
+		r ^= r << 5;
+		randomState = r;
+		return r >>> 8;
+	}
+}
@@ -1,30 +1,29 @@
 package rbadia.voidspace.model;
 
-import java.awt.Rectangle;
-
-import rbadia.voidspace.main.GameScreen;
-
 /**
  * Represents a ship/space craft.
  *
  */
-public class Ship extends Rectangle {
-	private static final long serialVersionUID = 1L;
-	
+public class Ship extends GameObject {
 	public static final int DEFAULT_SPEED = 5;
 	private static final int Y_OFFSET = 5; // initial y distance of the ship from the bottom of the screen 
 	
-	private int shipWidth = 25;
-	private int shipHeight = 25;
+	private static final int shipWidth = 25;
+	private static final int shipHeight = 25;
 	private int speed = DEFAULT_SPEED;
 	
 	/**
 	 * Creates a new ship at the default initial location. 
-	 * @param screen the game screen
+	 * @param store the entity store to add the ship to
+	 * @param screenWidth the width of the game screen
+	 * @param screenHeight the height of the game screen
 	 */
-	public Ship(GameScreen screen){
-		this.setLocation((screen.getWidth() - shipWidth)/2, screen.getHeight() - shipHeight - Y_OFFSET);
-		this.setSize(shipWidth, shipHeight);
+	public Ship(EntityStore store, int screenWidth, int screenHeight){
+		super(store, EntityStore.SHIP, shipWidth, shipHeight);
+		if(store.has(Components.SPRITE)){
+			store.sprite[getIndex()] = Sprite.SHIP;
+		}
+		this.setLocation((screenWidth - shipWidth)/2, screenHeight - shipHeight - Y_OFFSET);
 	}
 	
 	/**
@@ -0,0 +1,218 @@
+package rbadia.voidspace.model;
+
+/**
+ * Uniform grid over the game world, used as the broad phase of collision detection. The grid is
+ * rebuilt from an entity store once per tick; each entity is listed in every cell its bounds
+ * touch. A query then only runs the exact bounds test (the narrow phase) against the entities
+ * listed in the cells the query bounds touch, instead of against every entity.
+ * <p>
+ * The cells are packed in a single array with a counting sort, so rebuilding the grid does not
+ * allocate memory unless the store grows past what the grid has seen before.
+ */
+public class SpatialGrid {
+	private final int cellShift;
+	private final int columns;
+	private final int rows;
+
+	// entries[cellStart[c]] to entries[cellStart[c + 1] - 1] are the entities in cell c
+	private final int[] cellStart;
+	private final int[] cellCursor;
+	private int[] entries;
+
+	private EntityStore store;
+	private int ignoredFlags;
+
+	private long pairsTested;
+	private long totalPairsTested;
+
+	/**
+	 * Creates a new spatial grid.
+	 * @param worldWidth the width of the game world
+	 * @param worldHeight the height of the game world
+	 * @param cellSize the width and height of a cell, a power of two; best at about the size of the
+	 * largest entity
+	 */
+	public SpatialGrid(int worldWidth, int worldHeight, int cellSize) {
+		if(Integer.bitCount(cellSize) != 1){
+			throw new IllegalArgumentException("The cell size must be a power of two.");
+		}
+		this.cellShift = Integer.numberOfTrailingZeros(cellSize);
+		this.columns = (worldWidth + cellSize - 1) / cellSize;
+		this.rows = (worldHeight + cellSize - 1) / cellSize;
+		this.cellStart = new int[columns * rows + 1];
+		this.cellCursor = new int[columns * rows];
+		this.entries = new int[0];
+	}
+
+	/**
+	 * Rebuild the grid from the entities of a store. The grid must be rebuilt whenever entities
+	 * move or are added to or removed from the store.
+	 * @param entities the entity store
+	 * @param ignoredType the type of the entities to leave out (e.g. the ship), or -1
+	 * @param ignoredFlags entities with any of these flags are left out, now and in later queries
+	 */
+	public void build(EntityStore entities, int ignoredType, int ignoredFlags) {
+		this.store = entities;
+		this.ignoredFlags = ignoredFlags;
+		this.pairsTested = 0;
+		int numCells = columns * rows;
+		int[] counts = cellCursor;
+		for(int c=0; c<numCells; c++){
+			counts[c] = 0;
+		}
+
+		// count the entries of every cell
+		int n = entities.size();
+		int total = 0;
+		for(int i=0; i<n; i++){
+			if(entities.type[i] == ignoredType || (entities.flags[i] & ignoredFlags) != 0){
+				continue;
+			}
+			int x0 = column(entities.x[i]);
+			int x1 = column(entities.x[i] + entities.width[i] - 1);
+			int y0 = row(entities.y[i]);
+			int y1 = row(entities.y[i] + entities.height[i] - 1);
+			for(int cy=y0; cy<=y1; cy++){
+				for(int cx=x0; cx<=x1; cx++){
+					counts[cy * columns + cx]++;
+				}
+			}
+			total += (x1 - x0 + 1) * (y1 - y0 + 1);
+		}
+		if(total > entries.length){
+			entries = new int[Math.max(total, entries.length * 2)];
+		}
+
+		// turn the counts into start offsets, then fill in the entries
+		int start = 0;
+		for(int c=0; c<numCells; c++){
+			int count = counts[c];
+			cellStart[c] = start;
+			counts[c] = start;
+			start += count;
+		}
+		cellStart[numCells] = start;
+		for(int i=0; i<n; i++){
+			if(entities.type[i] == ignoredType || (entities.flags[i] & ignoredFlags) != 0){
+				continue;
+			}
+			int x0 = column(entities.x[i]);
+			int x1 = column(entities.x[i] + entities.width[i] - 1);
+			int y0 = row(entities.y[i]);
+			int y1 = row(entities.y[i] + entities.height[i] - 1);
+			for(int cy=y0; cy<=y1; cy++){
+				for(int cx=x0; cx<=x1; cx++){
+					entries[counts[cy * columns + cx]++] = i;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the first entity in the grid that overlaps an entity of another store (or of the
+	 * same store, e.g. the ship). Entities that got one of the ignored flags since the grid was
+	 * built are skipped.
+	 * @param other the store of the entity to look for overlaps with
+	 * @param otherIndex the index of that entity
+	 * @return the index of the overlapping entity in the grid's store, or -1 if there is none
+	 */
+	public int findFirst(EntityStore other, int otherIndex) {
+		long result = search(other, otherIndex);
+		long tested = result >>> 32;
+		pairsTested += tested;
+		totalPairsTested += tested;
+		return (int) result;
+	}
+
+	/**
+	 * Looks up the first overlapping entity for a range of entities of another store, like
+	 * findFirst(EntityStore, int) does for one. Safe to call from several threads at once for
+	 * different ranges, as long as nothing changes the grid or the stores in the meantime. The
+	 * pairs tested are not counted; add the returned count with addPairsTested(long).
+	 * @param other the store of the entities to look for overlaps with
+	 * @param from the index of the first entity
+	 * @param to the index after the last entity
+	 * @param results where to put the index of each entity's overlapping entity, or -1
+	 * @return the number of pairs tested
+	 */
+	public long findFirst(EntityStore other, int from, int to, int[] results) {
+		long tested = 0;
+		for(int i=from; i<to; i++){
+			long result = search(other, i);
+			results[i] = (int) result;
+			tested += result >>> 32;
+		}
+		return tested;
+	}
+
+	/**
+	 * Add to the pair counters, for pairs tested by findFirst(EntityStore, int, int, int[]).
+	 * @param tested the number of pairs tested
+	 */
+	public void addPairsTested(long tested) {
+		pairsTested += tested;
+		totalPairsTested += tested;
+	}
+
+	/**
+	 * Returns the number of pairs tested in the high 32 bits, and the index of the first
+	 * overlapping entity (or -1) in the low 32 bits.
+	 */
+	private long search(EntityStore other, int otherIndex) {
+		long tested = 0;
+		int ox = other.x[otherIndex];
+		int oy = other.y[otherIndex];
+		int x0 = column(ox);
+		int x1 = column(ox + other.width[otherIndex] - 1);
+		int y0 = row(oy);
+		int y1 = row(oy + other.height[otherIndex] - 1);
+		EntityStore entities = store;
+		for(int cy=y0; cy<=y1; cy++){
+			for(int cx=x0; cx<=x1; cx++){
+				int cell = cy * columns + cx;
+				for(int e=cellStart[cell], end=cellStart[cell + 1]; e<end; e++){
+					int i = entries[e];
+					if((entities.flags[i] & ignoredFlags) != 0){
+						continue;
+					}
+					// a pair that shares several cells is only tested in the cell holding the
+					// top left corner of their overlap
+					if(column(Math.max(ox, entities.x[i])) != cx || row(Math.max(oy, entities.y[i])) != cy){
+						continue;
+					}
+					tested++;
+					if(entities.intersects(i, other, otherIndex)){
+						return (tested << 32) | i;
+					}
+				}
+			}
+		}
+		return (tested << 32) | 0xffffffffL;
+	}
+
+	/**
+	 * Returns the number of exact bounds tests run since the grid was last built.
+	 * @return the number of pairs tested
+	 */
+	public long getPairsTested() {
+		return pairsTested;
+	}
+
+	/**
+	 * Returns the number of exact bounds tests run since the grid was created.
+	 * @return the total number of pairs tested
+	 */
+	public long getTotalPairsTested() {
+		return totalPairsTested;
+	}
+
+	private int column(int x) {
+		int c = x < 0 ? 0 : x >> cellShift;
+		return c < columns ? c : columns - 1;
+	}
+
+	private int row(int y) {
+		int r = y < 0 ? 0 : y >> cellShift;
+		return r < rows ? r : rows - 1;
+	}
+}
@@ -0,0 +1,20 @@
+package rbadia.voidspace.model;
+
+/**
+ * Ids of the images entities are drawn with, for the sprite column of an {@link EntityStore}.
+ */
+public final class Sprite {
+	public static final int SHIP = 0;
+	public static final int ENEMY_SHIP = 1;
+	public static final int BOSS_SHIP = 2;
+	public static final int ASTEROID = 3;
+	public static final int BULLET = 4;
+	public static final int ASTEROID_EXPLOSION = 5;
+	public static final int SHIP_EXPLOSION = 6;
+
+	/** The number of sprite ids. */
+	public static final int COUNT = 7;
+
+	private Sprite() {
+	}
+}
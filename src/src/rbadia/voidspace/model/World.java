@@ -0,0 +1,252 @@
+package rbadia.voidspace.model;
+
+import java.util.Random;
+
+/**
+ * The contents of the game world, one entity store per archetype: the player's ship, the enemies
+ * (asteroids and enemy ships), the bullets and the explosions; plus the debris particles flying
+ * off the explosions, in a {@link ParticlePool}. Systems pick the archetypes with
+ * the components they need (see getArchetypes(int)) and iterate their stores densely, from
+ * index 0 to size() - 1. A new kind of enemy is a new component combination, not a new loop.
+ */
+public class World {
+	/** The player's ship. */
+	public static final int PLAYER = Components.POSITION | Components.BOUNDS | Components.SPRITE;
+	/** Asteroids and enemy ships. */
+	public static final int ENEMY = Components.POSITION | Components.VELOCITY | Components.BOUNDS
+			| Components.SPRITE | Components.HEALTH | Components.SCORE;
+	/** Bullets. */
+	public static final int PROJECTILE = Components.POSITION | Components.VELOCITY | Components.BOUNDS
+			| Components.SPRITE;
+	/** Explosions; their timer column holds the ticks they have left. */
+	public static final int EFFECT = Components.POSITION | Components.SPRITE;
+
+	// debris per burst, by the type of entity that blew up: particles, speed (pixels per tick),
+	// lifetime (ticks) and palette
+	private static final int[] DEBRIS_COUNTS = {48, 24, 32, 64};
+	private static final int[] DEBRIS_SPEEDS = {5, 3, 4, 5};
+	private static final int[] DEBRIS_TICKS = {50, 40, 40, 60};
+	private static final int[] DEBRIS_PALETTES = {ParticlePool.FIRE, ParticlePool.ROCK, ParticlePool.FIRE, ParticlePool.FIRE};
+	private static final int PARTICLE_SEED = 42;
+
+	private final int width;
+	private final int height;
+	private final EntityStore players;
+	private final EntityStore entities;
+	private final EntityStore bullets;
+	private final EntityStore effects;
+	private final ParticlePool particles;
+	private final EntityStore[] archetypes;
+	private final EntityStore[] matches;
+
+	/**
+	 * Creates a new, empty game world.
+	 * @param width the width of the game world
+	 * @param height the height of the game world
+	 * @param capacity the maximum number of enemies (and of explosions)
+	 * @param bulletCapacity the maximum number of bullets
+	 * @param particleCapacity the maximum number of debris particles
+	 */
+	public World(int width, int height, int capacity, int bulletCapacity, int particleCapacity) {
+		this.width = width;
+		this.height = height;
+		this.players = new EntityStore(PLAYER, 1);
+		this.entities = new EntityStore(ENEMY, capacity);
+		this.bullets = new EntityStore(PROJECTILE, bulletCapacity);
+		this.effects = new EntityStore(EFFECT, capacity);
+		this.particles = new ParticlePool(particleCapacity, PARTICLE_SEED);
+		// in drawing order
+		this.archetypes = new EntityStore[] {entities, bullets, players, effects};
+		this.matches = new EntityStore[archetypes.length];
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the store of the player's ship.
+	 * @return the player store
+	 */
+	public EntityStore getPlayers() {
+		return players;
+	}
+
+	/**
+	 * Returns the store of asteroids and enemy ships.
+	 * @return the enemy store
+	 */
+	public EntityStore getEntities() {
+		return entities;
+	}
+
+	/**
+	 * Returns the store of live bullets.
+	 * @return the bullet store
+	 */
+	public EntityStore getBullets() {
+		return bullets;
+	}
+
+	/**
+	 * Returns the store of explosions. Their timer column holds the ticks they have left.
+	 * @return the effect store
+	 */
+	public EntityStore getEffects() {
+		return effects;
+	}
+
+	/**
+	 * Returns the debris particles.
+	 * @return the particle pool
+	 */
+	public ParticlePool getParticles() {
+		return particles;
+	}
+
+	/**
+	 * Returns the stores whose archetype has all of the given components, in drawing order. The
+	 * array is reused by the next call, and ends with null if not every store matches.
+	 * @param components the required {@link Components} flags
+	 * @return the matching stores
+	 */
+	public EntityStore[] getArchetypes(int components) {
+		int count = 0;
+		for(int i=0; i<archetypes.length; i++){
+			if(archetypes[i].has(components)){
+				matches[count++] = archetypes[i];
+			}
+		}
+		if(count < matches.length){
+			matches[count] = null;
+		}
+		return matches;
+	}
+
+	/**
+	 * Adds a new explosion. Explosions that don't fit in the world are dropped.
+	 * @param type the explosion type, which is also its {@link Sprite} id
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @param ticks how many ticks the explosion lasts
+	 */
+	public void spawnExplosion(int type, int x, int y, int ticks) {
+		int id = effects.spawn(type, x, y, 0, 0, 0, 0);
+		if(id >= 0){
+			int index = effects.indexOf(id);
+			effects.sprite[index] = type == EntityStore.SHIP_EXPLOSION ? Sprite.SHIP_EXPLOSION : Sprite.ASTEROID_EXPLOSION;
+			effects.timer[index] = ticks;
+		}
+	}
+
+	/**
+	 * Adds a burst of debris flying off a destroyed entity. Particles that don't fit are dropped.
+	 * @param type the type of the entity that blew up (the ship, an asteroid or an enemy ship)
+	 * @param centerX the x coordinate of the middle of the entity
+	 * @param centerY the y coordinate of the middle of the entity
+	 */
+	public void spawnDebris(int type, int centerX, int centerY) {
+		particles.emit(centerX, centerY, DEBRIS_COUNTS[type], DEBRIS_SPEEDS[type], DEBRIS_TICKS[type],
+				DEBRIS_PALETTES[type]);
+	}
+
+	/**
+	 * Count down the explosions' time, and remove the ones that are over. Moves the debris along.
+	 */
+	public void updateEffects() {
+		particles.update();
+		for(int i=0; i<effects.size(); i++){
+			if(--effects.timer[i] <= 0){
+				// the last explosion takes its place, so look at this index again
+				effects.removeAt(i);
+				i--;
+			}
+		}
+	}
+
+	/**
+	 * Adds a new asteroid at the top of the screen.
+	 * @param rand the random number generator to pick the location and speed with
+	 * @return the id of the asteroid, or -1 if the world is full
+	 */
+	public int spawnAsteroid(Random rand) {
+		return Asteroid.spawn(entities, width, rand);
+	}
+
+	/**
+	 * Adds a new enemy ship at the top of the screen.
+	 * @param rand the random number generator to pick the location with
+	 * @param direction -1 to fly to the left, 1 to fly to the right
+	 * @param speedMultiplier how much faster the ship flies down than sideways
+	 * @return the id of the ship, or -1 if the world is full
+	 */
+	public int spawnEnemyShip(Random rand, int direction, int speedMultiplier) {
+		return EnemyShip.spawn(entities, EntityStore.ENEMY_SHIP, width, rand, direction, speedMultiplier);
+	}
+
+	/**
+	 * Adds a new boss ship at the top of the screen.
+	 * @param rand the random number generator to pick the location with
+	 * @return the id of the ship, or -1 if the world is full
+	 */
+	public int spawnBossShip(Random rand) {
+		return EnemyShip.spawn(entities, EntityStore.BOSS_SHIP, width, rand, -1, 1);
+	}
+
+	/**
+	 * Adds a wave of enemies. Enemy ships take turns flying fast to the left and slowly to the right.
+	 * Enemies that don't fit in the world are dropped.
+	 * @param rand the random number generator
+	 * @param asteroidCount the number of asteroids
+	 * @param enemyShipCount the number of enemy ships
+	 * @param bossShipCount the number of boss ships
+	 */
+	public void spawnWave(Random rand, int asteroidCount, int enemyShipCount, int bossShipCount) {
+		for(int i=0; i<asteroidCount; i++){
+			spawnAsteroid(rand);
+		}
+		for(int i=0; i<enemyShipCount; i++){
+			if(i % 2 == 0){
+				spawnEnemyShip(rand, -1, 2);
+			}
+			else{
+				spawnEnemyShip(rand, 1, 1);
+			}
+		}
+		for(int i=0; i<bossShipCount; i++){
+			spawnBossShip(rand);
+		}
+	}
+
+	/**
+	 * Returns the total number of entities, the ship and bullets included.
+	 * @return the number of entities
+	 */
+	public int size() {
+		return players.size() + entities.size() + bullets.size();
+	}
+
+	/**
+	 * Remember the location of every entity, for drawing in between steps.
+	 */
+	public void savePositions() {
+		players.savePositions();
+		entities.savePositions();
+		bullets.savePositions();
+	}
+
+	/**
+	 * Removes everything from the world.
+	 */
+	public void clear() {
+		players.clear();
+		entities.clear();
+		bullets.clear();
+		effects.clear();
+		particles.clear();
+	}
+}
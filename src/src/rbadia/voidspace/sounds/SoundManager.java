@@ -11,18 +11,44 @@ import rbadia.voidspace.main.GameScreen;
 public class SoundManager {
 	private static final boolean SOUND_ON = true;
 
-    private AudioClip shipExplosionSound = Applet.newAudioClip(GameScreen.class.getResource(
-    "/rbadia/voidspace/sounds/shipExplosion.wav"));
-    private AudioClip bulletSound = Applet.newAudioClip(GameScreen.class.getResource(
-    "/rbadia/voidspace/sounds/laser.wav"));
-    private AudioClip gameTheme = Applet.newAudioClip(GameScreen.class.getResource(
-    "/rbadia/voidspace/sounds/undertaleTheme.wav"));
+	private final boolean soundOn;
+
+    private AudioClip shipExplosionSound;
+    private AudioClip bulletSound;
+    private AudioClip gameTheme;
+
+    // sounds queued during a simulation step, played once each at its end
+    private boolean shipExplosionQueued;
+    private boolean asteroidExplosionQueued;
+
+    /**
+     * Creates a new sound manager and loads the game sounds.
+     */
+    public SoundManager(){
+    	this(SOUND_ON);
+    }
+
+    /**
+     * Creates a new sound manager.
+     * @param soundOn if sounds should be loaded and played (false for headless runs)
+     */
+    public SoundManager(boolean soundOn){
+    	this.soundOn = soundOn;
+    	if(soundOn){
+    		shipExplosionSound = Applet.newAudioClip(GameScreen.class.getResource(
+    		"/rbadia/voidspace/sounds/shipExplosion.wav"));
+    		bulletSound = Applet.newAudioClip(GameScreen.class.getResource(
+    		"/rbadia/voidspace/sounds/laser.wav"));
+    		gameTheme = Applet.newAudioClip(GameScreen.class.getResource(
+    		"/rbadia/voidspace/sounds/undertaleTheme.wav"));
+    	}
+    }
     
     /**
      * Plays sound for bullets fired by the ship.
      */
     public void playBulletSound(){
-    	if(SOUND_ON){new Thread(new Runnable(){
+    	if(soundOn){new Thread(new Runnable(){
 			public void run() {
 				bulletSound.play();
 			}
@@ -34,7 +60,7 @@ public class SoundManager {
      * Plays sound for ship explosions.
      */
     public void playShipExplosionSound(){
-    	if(SOUND_ON){
+    	if(soundOn){
     		new Thread(new Runnable(){
     			public void run() {
     				shipExplosionSound.play();
@@ -48,13 +74,41 @@ public class SoundManager {
      */
     public void playAsteroidExplosionSound(){
 		// play sound for asteroid explosions
-    	if(SOUND_ON){
+    	if(soundOn){
     		
     	}
     }
     
+    /**
+     * Queues the ship explosion sound, to be played by playQueuedSounds.
+     */
+    public void queueShipExplosionSound(){
+    	shipExplosionQueued = true;
+    }
+
+    /**
+     * Queues the asteroid explosion sound, to be played by playQueuedSounds.
+     */
+    public void queueAsteroidExplosionSound(){
+    	asteroidExplosionQueued = true;
+    }
+
+    /**
+     * Plays the queued sounds, each sound only once however many times it was queued.
+     */
+    public void playQueuedSounds(){
+    	if(shipExplosionQueued){
+    		shipExplosionQueued = false;
+    		playShipExplosionSound();
+    	}
+    	if(asteroidExplosionQueued){
+    		asteroidExplosionQueued = false;
+    		playAsteroidExplosionSound();
+    	}
+    }
+
     public void playGameTheme(){
-    	if(SOUND_ON){
+    	if(soundOn){
     		new Thread(new Runnable(){
     			public void run() {
     				gameTheme.loop();;